@@ -0,0 +1,66 @@
+package com.playwright.stealth;
+
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the per-request decision cost of {@link StealthRequestBlocker}
+ * with a blocklist of realistic size. Results are in nanoseconds per decision.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBlockerBenchmark {
+
+    @Param({"50000"})
+    public int domains;
+
+    @Param({"10000"})
+    public int patterns;
+
+    private StealthRequestBlocker blocker;
+    private String[] urls;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> domainList = new ArrayList<>();
+        for (int i = 0; i < domains; i++) {
+            domainList.add("ads" + i + ".tracker" + (i % 977) + ".com");
+        }
+        List<String> patternList = new ArrayList<>();
+        for (int i = 0; i < patterns; i++) {
+            patternList.add("/pixel" + i + "/");
+        }
+        blocker = StealthRequestBlocker.builder()
+            .blockResourceTypes("image", "media", "font")
+            .blockDomains(domainList)
+            .blockUrlPatterns(patternList)
+            .build();
+
+        urls = new String[] {
+            "https://www.example.com/assets/app.3f9a1c.js",
+            "https://cdn.example.com/static/css/main.css?v=20240101",
+            "https://ads123.tracker123.com/serve?id=42",
+            "https://www.example.com/api/v1/items?page=2&sort=desc",
+            "https://metrics.example.com/pixel9999/collect?u=1",
+            "https://fonts.example.net/inter.woff2"
+        };
+    }
+
+    @Benchmark
+    public boolean shouldBlock() {
+        String url = urls[next++ % urls.length];
+        return blocker.shouldBlock(url, "script");
+    }
+
+    @Benchmark
+    public boolean shouldBlockByType() {
+        return blocker.shouldBlock(urls[0], "image");
+    }
+}
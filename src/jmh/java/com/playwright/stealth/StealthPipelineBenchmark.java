@@ -0,0 +1,110 @@
+package com.playwright.stealth;
+
+import org.openjdk.jmh.annotations.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the Java side of the stealth pipeline: building configurations,
+ * generating the script list, serializing the JSON options and assembling the bundle.
+ * Run with {@code ./gradlew jmh}; the gc profiler adds the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StealthPipelineBenchmark {
+
+    private StealthConfig config;
+    private StealthSnapshot snapshot;
+    private StealthScriptCache cache;
+    private String optsScript;
+    private Map<String, String> evasions;
+    private FingerprintProfileGenerator generator;
+    private long profileIndex;
+
+    @Setup
+    public void setUp() {
+        config = Stealth.configBuilder()
+            .navUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
+            .navPlatform("Win32")
+            .languages(Arrays.asList("en-US", "en"))
+            .build();
+        snapshot = config.snapshot();
+        cache = new StealthScriptCache(StealthScriptCache.DEFAULT_CAPACITY);
+        cache.get(config);
+        optsScript = "const opts = " + config.buildOptsJson();
+        evasions = config.getEnabledEvasions();
+        generator = FingerprintProfileGenerator.builder().seed(42).build();
+    }
+
+    @Benchmark
+    public StealthConfig newConfig() {
+        return new StealthConfig();
+    }
+
+    @Benchmark
+    public StealthConfig builderBuild() {
+        return Stealth.configBuilder()
+            .navPlatform("Win32")
+            .languages(Arrays.asList("en-US", "en"))
+            .build();
+    }
+
+    @Benchmark
+    public StealthSnapshot builderSnapshot() {
+        return Stealth.configBuilder()
+            .navPlatform("Win32")
+            .languages(Arrays.asList("en-US", "en"))
+            .snapshot();
+    }
+
+    @Benchmark
+    public List<String> enabledScripts() {
+        return config.getEnabledScripts();
+    }
+
+    @Benchmark
+    public String optsJson() {
+        return config.buildOptsJson();
+    }
+
+    @Benchmark
+    public String bundleAssembly() {
+        return StealthBundler.bundle(optsScript, evasions);
+    }
+
+    @Benchmark
+    public String bundledScript() {
+        return config.getBundledScript();
+    }
+
+    @Benchmark
+    public StealthScriptCompiler.Result compile() {
+        return StealthScriptCompiler.compile(config);
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return config.fingerprint();
+    }
+
+    @Benchmark
+    public List<String> cachedScripts() {
+        return cache.getScripts(config);
+    }
+
+    @Benchmark
+    public List<String> snapshotScripts() {
+        return cache.getScripts(snapshot);
+    }
+
+    @Benchmark
+    public FingerprintProfile generateProfile() {
+        return generator.get(profileIndex++);
+    }
+}
@@ -0,0 +1,91 @@
+package com.playwright.stealth.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and exits with a non-zero status when a benchmark
+ * regressed by more than the given threshold, either in throughput or in bytes allocated
+ * per operation. Used by {@code ./gradlew jmhCompare} to gate upgrades against a baseline.
+ */
+public class BenchmarkComparator {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparator <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-80s %14s %14s %8s %12s %12s %8s%n",
+            "Benchmark", "Base ops", "Current ops", "Delta", "Base B/op", "Current B/op", "Delta");
+
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result base = baseline.get(entry.getKey());
+            Result now = entry.getValue();
+            if (base == null) {
+                System.out.printf("%-80s %14s %14.3f%n", entry.getKey(), "-", now.score);
+                continue;
+            }
+
+            double scoreDelta = percent(base.score, now.score);
+            double allocDelta = percent(base.allocPerOp, now.allocPerOp);
+            boolean slower = base.higherIsBetter ? scoreDelta < -threshold : scoreDelta > threshold;
+            boolean heavier = allocDelta > threshold && now.allocPerOp - base.allocPerOp > 16;
+
+            System.out.printf("%-80s %14.3f %14.3f %7.1f%% %12.1f %12.1f %7.1f%%%s%n",
+                entry.getKey(), base.score, now.score, scoreDelta,
+                base.allocPerOp, now.allocPerOp, allocDelta,
+                slower || heavier ? "  REGRESSION" : "");
+
+            if (slower || heavier) {
+                regressions++;
+            }
+        }
+
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    private static double percent(double base, double current) {
+        if (Double.isNaN(base) || Double.isNaN(current) || base == 0) {
+            return 0;
+        }
+        return (current - base) / base * 100.0;
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            key.append(" [").append(run.path("mode").asText()).append(']');
+            run.path("params").fields().forEachRemaining(param ->
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+
+            Result result = new Result();
+            result.score = run.path("primaryMetric").path("score").asDouble(Double.NaN);
+            result.higherIsBetter = "thrpt".equals(run.path("mode").asText());
+            result.allocPerOp = run.path("secondaryMetrics").path(ALLOC_METRIC).path("score").asDouble(Double.NaN);
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static class Result {
+        double score;
+        boolean higherIsBetter;
+        double allocPerOp;
+    }
+}
@@ -0,0 +1,147 @@
+package com.playwright.stealth.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microsoft.playwright.*;
+import com.playwright.stealth.Stealth;
+import com.playwright.stealth.StealthSnapshot;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-page microbenchmark for the cost of calling hooked APIs. For each stealth mode it opens a page
+ * and times tight loops over {@code navigator.webdriver}, {@code getParameter} for a spoofed and a
+ * passed-through parameter, and {@code Function.prototype.toString} on the hooked {@code canPlayType},
+ * reporting nanoseconds per call and the ratio to the unpatched native call.
+ *
+ * <p>Run with {@code ./gradlew hookCallBenchmark}. Options: {@code --calls N} per loop,
+ * {@code --rounds N} loops per hook (the median is reported) and {@code --output results.json}.</p>
+ */
+public class HookCallBenchmark {
+
+    private static final String USAGE = "Usage: HookCallBenchmark [--calls N] [--rounds N] [--output results.json]";
+
+    private static final String PAGE = "data:text/html,<html><body><canvas id='canvas'></canvas></body></html>";
+
+    /**
+     * Runs every loop {@code rounds} times after a warmup loop and returns the median ns per call.
+     * The results are folded into a sink so the calls cannot be optimized away.
+     */
+    private static final String LOOPS = """
+        ([calls, rounds]) => {
+            const gl = document.getElementById('canvas').getContext('webgl');
+            const canPlayType = HTMLMediaElement.prototype.canPlayType;
+            let sink = 0;
+            const hooks = {
+                'navigator.webdriver': () => { sink ^= navigator.webdriver ? 1 : 0; },
+                // canPlayType is hooked in every mode and exists without WebGL
+                'Function.toString': () => { sink ^= Function.prototype.toString.call(canPlayType).length; }
+            };
+            if (gl) {
+                hooks['getParameter(UNMASKED_VENDOR_WEBGL)'] = () => { sink ^= gl.getParameter(37445).length; };
+                hooks['getParameter(MAX_TEXTURE_SIZE)'] = () => { sink ^= gl.getParameter(3379); };
+            }
+            const results = {};
+            for (const name of Object.keys(hooks)) {
+                const hook = hooks[name];
+                for (let i = 0; i < calls; i++) hook();
+                const samples = [];
+                for (let r = 0; r < rounds; r++) {
+                    const start = performance.now();
+                    for (let i = 0; i < calls; i++) hook();
+                    samples.push((performance.now() - start) * 1e6 / calls);
+                }
+                samples.sort((a, b) => a - b);
+                results[name] = samples[samples.length >> 1];
+            }
+            results.sink = sink;
+            return results;
+        }
+        """;
+
+    public static void main(String[] args) throws IOException {
+        int calls = 1_000_000;
+        int rounds = 7;
+        String output = "build/reports/hook-calls/results.json";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--calls" -> calls = PageStartupBenchmark.intValue(args, ++i, USAGE);
+                case "--rounds" -> rounds = PageStartupBenchmark.intValue(args, ++i, USAGE);
+                case "--output" -> output = PageStartupBenchmark.value(args, ++i, USAGE);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i] + "\n" + USAGE);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("version", Stealth.class.getPackage().getImplementationVersion());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("calls", calls);
+        report.put("rounds", rounds);
+        List<Map<String, Object>> results = new ArrayList<>();
+        report.put("results", results);
+
+        Map<String, StealthSnapshot> modes = new LinkedHashMap<>();
+        modes.put("native", null);
+        modes.put("default", Stealth.configBuilder().bundleScripts(true).snapshot());
+        modes.put("proxyFree", Stealth.configBuilder().bundleScripts(true).proxyFree(true).snapshot());
+
+        try (Playwright playwright = Playwright.create()) {
+            Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+            report.put("browserVersion", browser.version());
+
+            Map<String, Double> baseline = null;
+            for (Map.Entry<String, StealthSnapshot> mode : modes.entrySet()) {
+                Map<String, Double> nanosPerCall = run(browser, mode.getValue(), calls, rounds);
+                if (baseline == null) {
+                    baseline = nanosPerCall;
+                }
+                for (Map.Entry<String, Double> hook : nanosPerCall.entrySet()) {
+                    Double nativeNanos = baseline.get(hook.getKey());
+                    double ratio = nativeNanos == null || nativeNanos == 0 ? Double.NaN : hook.getValue() / nativeNanos;
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("mode", mode.getKey());
+                    result.put("hook", hook.getKey());
+                    result.put("nanosPerCall", hook.getValue());
+                    result.put("ratioToNative", ratio);
+                    results.add(result);
+                    System.out.printf("%-10s %-38s %10.2f ns/call  %6.2fx native%n", mode.getKey(), hook.getKey(), hook.getValue(), ratio);
+                }
+            }
+
+            browser.close();
+        }
+
+        File file = new File(output);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Results written to " + file.getAbsolutePath());
+    }
+
+    private static Map<String, Double> run(Browser browser, StealthSnapshot snapshot, int calls, int rounds) {
+        try (BrowserContext context = browser.newContext()) {
+            Page page = context.newPage();
+            if (snapshot != null) {
+                Stealth.stealth(page, snapshot);
+            }
+            page.navigate(PAGE);
+
+            Map<?, ?> values = (Map<?, ?>) page.evaluate(LOOPS, Arrays.asList(calls, rounds));
+            Map<String, Double> nanosPerCall = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : values.entrySet()) {
+                if (!"sink".equals(entry.getKey())) {
+                    nanosPerCall.put((String) entry.getKey(), ((Number) entry.getValue()).doubleValue());
+                }
+            }
+            return nanosPerCall;
+        }
+    }
+}
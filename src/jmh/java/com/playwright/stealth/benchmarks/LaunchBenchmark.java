@@ -0,0 +1,156 @@
+package com.playwright.stealth.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microsoft.playwright.*;
+import com.playwright.stealth.Stealth;
+import com.playwright.stealth.StealthLaunchOptions;
+import com.playwright.stealth.StealthSnapshot;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Browser startup and memory benchmark for the {@link StealthLaunchOptions} tiers. For each tier it
+ * repeatedly launches headless Chromium, opens stealthed pages on the fixture pages and then sums
+ * the memory of every Chromium process. PSS counts shared pages once, so it is the better measure of
+ * how many browsers fit on one machine. Memory is read from {@code /proc} and is only reported on Linux.
+ *
+ * <p>Run with {@code ./gradlew launchBenchmark}. Options: {@code --iterations N}, {@code --pages N}
+ * pages per browser and {@code --output results.json}.</p>
+ */
+public class LaunchBenchmark {
+
+    private static final String USAGE = "Usage: LaunchBenchmark [--iterations N] [--pages N] [--output results.json]";
+
+    private static final String[] FIXTURES = { "simple.html", "iframes.html" };
+
+    public static void main(String[] args) throws IOException {
+        int iterations = 10;
+        int pages = 4;
+        String output = "build/reports/launch/results.json";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--iterations" -> iterations = PageStartupBenchmark.intValue(args, ++i, USAGE);
+                case "--pages" -> pages = PageStartupBenchmark.intValue(args, ++i, USAGE);
+                case "--output" -> output = PageStartupBenchmark.value(args, ++i, USAGE);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i] + "\n" + USAGE);
+            }
+        }
+
+        HttpServer server = PageStartupBenchmark.startServer();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        StealthSnapshot config = Stealth.configBuilder().bundleScripts(true).snapshot();
+
+        Map<String, BrowserType.LaunchOptions> tiers = new LinkedHashMap<>();
+        tiers.put("playwright", new BrowserType.LaunchOptions().setHeadless(true));
+        tiers.put("balanced", StealthLaunchOptions.balanced(config));
+        tiers.put("minimal", StealthLaunchOptions.minimal(config));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("version", Stealth.class.getPackage().getImplementationVersion());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("iterations", iterations);
+        report.put("pages", pages);
+        List<Map<String, Object>> results = new ArrayList<>();
+        report.put("results", results);
+
+        try (Playwright playwright = Playwright.create()) {
+            for (Map.Entry<String, BrowserType.LaunchOptions> tier : tiers.entrySet()) {
+                double[] launchMs = new double[iterations];
+                double[] rssMb = new double[iterations];
+                double[] pssMb = new double[iterations];
+                int processes = 0;
+
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    Browser browser = playwright.chromium().launch(tier.getValue());
+                    launchMs[i] = (System.nanoTime() - start) / 1_000_000.0;
+
+                    BrowserContext context = browser.newContext();
+                    Stealth.stealthContext(context, config);
+                    for (int p = 0; p < pages; p++) {
+                        context.newPage().navigate(baseUrl + FIXTURES[p % FIXTURES.length]);
+                    }
+
+                    long[] memory = chromiumMemoryKb();
+                    rssMb[i] = memory[0] / 1024.0;
+                    pssMb[i] = memory[1] / 1024.0;
+                    processes = (int) memory[2];
+                    browser.close();
+                }
+
+                Map<String, Double> launch = PageStartupBenchmark.summarize(launchMs);
+                Map<String, Double> rss = PageStartupBenchmark.summarize(rssMb);
+                Map<String, Double> pss = PageStartupBenchmark.summarize(pssMb);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("tier", tier.getKey());
+                result.put("args", tier.getValue().args);
+                result.put("launchMs", launch);
+                result.put("processes", processes);
+                result.put("rssMb", rss);
+                result.put("pssMb", pss);
+                results.add(result);
+                System.out.printf("%-10s launch p50=%.1fms p90=%.1fms  processes=%d  rss p50=%.1fMB  pss p50=%.1fMB%n",
+                    tier.getKey(), launch.get("p50"), launch.get("p90"), processes, rss.get("p50"), pss.get("p50"));
+            }
+        } finally {
+            server.stop(0);
+        }
+
+        File file = new File(output);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Results written to " + file.getAbsolutePath());
+    }
+
+    /**
+     * Sums RSS and PSS over the Chromium processes started by this JVM's Playwright driver.
+     *
+     * @return RSS in kB, PSS in kB and the number of processes, or -1s where /proc is unavailable
+     */
+    private static long[] chromiumMemoryKb() {
+        if (!Files.isDirectory(Paths.get("/proc/self"))) {
+            return new long[] { -1, -1, -1 };
+        }
+        long rss = 0;
+        long pss = 0;
+        long count = 0;
+        for (ProcessHandle process : (Iterable<ProcessHandle>) ProcessHandle.current().descendants()::iterator) {
+            String command = process.info().command().orElse("");
+            if (!command.contains("chrom") && !command.contains("headless_shell")) {
+                continue;
+            }
+            Path rollup = Paths.get("/proc", Long.toString(process.pid()), "smaps_rollup");
+            try {
+                for (String line : Files.readAllLines(rollup)) {
+                    if (line.startsWith("Rss:")) {
+                        rss += kilobytes(line);
+                    } else if (line.startsWith("Pss:")) {
+                        pss += kilobytes(line);
+                    }
+                }
+                count++;
+            } catch (IOException e) {
+                // The process exited between listing and reading
+            }
+        }
+        return new long[] { rss, pss, count };
+    }
+
+    private static long kilobytes(String line) {
+        String[] parts = line.trim().split("\\s+");
+        return Long.parseLong(parts[1]);
+    }
+}
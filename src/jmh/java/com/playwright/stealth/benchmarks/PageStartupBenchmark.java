@@ -0,0 +1,240 @@
+package com.playwright.stealth.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microsoft.playwright.*;
+import com.microsoft.playwright.options.WaitUntilState;
+import com.playwright.stealth.Stealth;
+import com.playwright.stealth.StealthConfig;
+import com.playwright.stealth.StealthSnapshot;
+import com.playwright.stealth.StealthTransport;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * End-to-end page startup benchmark. Serves the fixture pages from a local JDK {@link HttpServer},
+ * launches headless Chromium and measures, per stealth mode and fixture, the wall-clock time of
+ * {@code newPage} plus navigation and the in-page time from first response byte to DOMContentLoaded.
+ *
+ * <p>Run with {@code ./gradlew pageStartupBenchmark}. Options: {@code --iterations N},
+ * {@code --warmup N} and {@code --output results.json}.</p>
+ */
+public class PageStartupBenchmark {
+
+    private static final String USAGE = "Usage: PageStartupBenchmark [--iterations N] [--warmup N] [--output results.json]";
+
+    private static final String[] FIXTURES = { "simple.html", "iframes.html" };
+
+    private static final String TTFB_TO_DCL = """
+        (() => {
+            const t = performance.timing;
+            return t.domContentLoadedEventEnd - t.responseStart;
+        })()
+        """;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = 100;
+        int warmup = 10;
+        String output = "build/reports/page-startup/results.json";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--iterations" -> iterations = intValue(args, ++i, USAGE);
+                case "--warmup" -> warmup = intValue(args, ++i, USAGE);
+                case "--output" -> output = value(args, ++i, USAGE);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i] + "\n" + USAGE);
+            }
+        }
+
+        HttpServer server = startServer();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("version", Stealth.class.getPackage().getImplementationVersion());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("iterations", iterations);
+        report.put("warmup", warmup);
+        List<Map<String, Object>> results = new ArrayList<>();
+        report.put("results", results);
+
+        try (Playwright playwright = Playwright.create()) {
+            Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+            report.put("browserVersion", browser.version());
+
+            for (Mode mode : modes()) {
+                for (String fixture : FIXTURES) {
+                    Map<String, Object> result = run(browser, mode, baseUrl + fixture, iterations, warmup);
+                    result.put("fixture", fixture);
+                    results.add(result);
+                    System.out.printf("%-12s %-14s newPage+navigate p50=%.2fms p99=%.2fms  ttfb->dcl p50=%.2fms p99=%.2fms%n",
+                        mode.name, fixture,
+                        percentiles(result, "newPageAndNavigateMs", "p50"), percentiles(result, "newPageAndNavigateMs", "p99"),
+                        percentiles(result, "ttfbToDomContentLoadedMs", "p50"), percentiles(result, "ttfbToDomContentLoadedMs", "p99"));
+                }
+            }
+
+            browser.close();
+        } finally {
+            server.stop(0);
+        }
+
+        File file = new File(output);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Results written to " + file.getAbsolutePath());
+    }
+
+    /**
+     * The stealth modes under test. Each mode may prepare the context once and then
+     * gets every new page before it navigates.
+     */
+    private static List<Mode> modes() {
+        StealthConfig perPage = new StealthConfig();
+        StealthSnapshot bundled = Stealth.configBuilder().bundleScripts(true).snapshot();
+        StealthSnapshot minified = Stealth.configBuilder().bundleScripts(true).minifyScripts(true).snapshot();
+        StealthSnapshot cdp = Stealth.configBuilder().minifyScripts(true).transport(StealthTransport.CDP).snapshot();
+        StealthSnapshot emulated = Stealth.configBuilder().minifyScripts(true).transport(StealthTransport.CDP).nativeEmulation(true).snapshot();
+
+        return Arrays.asList(
+            new Mode("none", context -> {}, page -> {}),
+            new Mode("perPage", context -> {}, page -> Stealth.stealth(page, perPage)),
+            new Mode("bundled", context -> {}, page -> Stealth.stealth(page, bundled)),
+            new Mode("minified", context -> {}, page -> Stealth.stealth(page, minified)),
+            new Mode("cdp", context -> {}, page -> Stealth.stealth(page, cdp)),
+            new Mode("emulated", context -> {}, page -> Stealth.stealth(page, emulated)),
+            new Mode("context", context -> Stealth.stealthContext(context, bundled), page -> {})
+        );
+    }
+
+    private static Map<String, Object> run(Browser browser, Mode mode, String url, int iterations, int warmup) {
+        double[] wall = new double[iterations];
+        double[] inPage = new double[iterations];
+
+        try (BrowserContext context = browser.newContext()) {
+            mode.prepareContext.accept(context);
+
+            for (int i = -warmup; i < iterations; i++) {
+                long start = System.nanoTime();
+                Page page = context.newPage();
+                mode.preparePage.accept(page);
+                page.navigate(url, new Page.NavigateOptions().setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
+                long elapsed = System.nanoTime() - start;
+
+                if (i >= 0) {
+                    wall[i] = elapsed / 1_000_000.0;
+                    inPage[i] = ((Number) page.evaluate(TTFB_TO_DCL)).doubleValue();
+                }
+                page.close();
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode.name);
+        result.put("newPageAndNavigateMs", summarize(wall));
+        result.put("ttfbToDomContentLoadedMs", summarize(inPage));
+        return result;
+    }
+
+    /**
+     * Returns the value of the option before index {@code i}, failing with the usage message if it is missing.
+     */
+    static String value(String[] args, int i, String usage) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1] + "\n" + usage);
+        }
+        return args[i];
+    }
+
+    /**
+     * Returns the numeric value of the option before index {@code i}, failing with the usage message
+     * if it is missing or not a number.
+     */
+    static int intValue(String[] args, int i, String usage) {
+        String value = value(args, i, usage);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number for " + args[i - 1] + ", got " + value + "\n" + usage);
+        }
+    }
+
+    static Map<String, Double> summarize(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (double sample : sorted) {
+            sum += sample;
+        }
+
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("mean", sum / sorted.length);
+        summary.put("p50", percentile(sorted, 0.50));
+        summary.put("p90", percentile(sorted, 0.90));
+        summary.put("p99", percentile(sorted, 0.99));
+        summary.put("max", sorted[sorted.length - 1]);
+        return summary;
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double percentiles(Map<String, Object> result, String metric, String percentile) {
+        return ((Map<String, Double>) result.get(metric)).get(percentile);
+    }
+
+    static HttpServer startServer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String name = exchange.getRequestURI().getPath().substring(1);
+            byte[] body = null;
+            if (!name.contains("..")) {
+                try (InputStream in = PageStartupBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+                    if (in != null) {
+                        body = in.readAllBytes();
+                    }
+                }
+            }
+
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static class Mode {
+        final String name;
+        final Consumer<BrowserContext> prepareContext;
+        final Consumer<Page> preparePage;
+
+        Mode(String name, Consumer<BrowserContext> prepareContext, Consumer<Page> preparePage) {
+            this.name = name;
+            this.prepareContext = prepareContext;
+            this.preparePage = preparePage;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.playwright.stealth;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.CDPSession;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Injects stealth bundles and applies emulation overrides through the Chrome DevTools Protocol.
+ * Scripts and overrides registered on a CDP session only live as long as the session, so the
+ * session is intentionally never detached; it goes away together with the page.
+ */
+final class CdpTransport {
+
+    private static final Pattern CHROME_VERSION = Pattern.compile("(?:Headless)?Chrome/((\\d+)[\\d.]*)");
+    private static final Pattern MAC_VERSION = Pattern.compile("Mac OS X (\\d+(?:[_.]\\d+)*)");
+    private static final Pattern ANDROID_VERSION = Pattern.compile("Android (\\d+(?:\\.\\d+)*)");
+    private static final Pattern CROS_VERSION = Pattern.compile("CrOS \\S+ (\\d+(?:\\.\\d+)*)");
+    /** Linux user agents carry no version, so a current kernel release stands in for it. */
+    private static final String LINUX_VERSION = "6.5.0";
+
+    private CdpTransport() {}
+
+    /**
+     * Opens a CDP session for the page, or returns null if the browser is not Chromium.
+     */
+    static CDPSession openSession(Page page) {
+        Browser browser = page.context().browser();
+        if (browser != null && !"chromium".equals(browser.browserType().name())) {
+            return null;
+        }
+        try {
+            return page.context().newCDPSession(page);
+        } catch (PlaywrightException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registers the snapshot's bundle on the session's page and runs it on the current document.
+     */
+    static void inject(CDPSession session, StealthSnapshot snapshot) {
+        JsonObject params = new JsonObject();
+        params.addProperty("source", snapshot.getBundledScript());
+        params.addProperty("runImmediately", true);
+        try {
+            session.send("Page.addScriptToEvaluateOnNewDocument", params);
+        } catch (PlaywrightException e) {
+            // Chromium before 112 rejects runImmediately; register, then run on the current document ourselves
+            params.remove("runImmediately");
+            session.send("Page.addScriptToEvaluateOnNewDocument", params);
+            JsonObject evaluate = new JsonObject();
+            evaluate.addProperty("expression", snapshot.getBundledScript());
+            session.send("Runtime.evaluate", evaluate);
+        }
+    }
+
+    /**
+     * Backs the user agent, platform, languages and hardware concurrency patches with emulation
+     * overrides, so request headers and client hints match what the page reads. The overrides only
+     * cover the session's own target; out-of-process iframes, workers and popups are not attached,
+     * so the JavaScript patches are kept for them. This adds CDP round trips to every page and the
+     * session has to stay attached, since detaching it would drop the overrides.
+     */
+    static void emulate(CDPSession session, StealthSnapshot snapshot, String browserVersion) {
+        String userAgent = snapshot.getNavUserAgent();
+        if (userAgent == null) {
+            JsonObject evaluate = new JsonObject();
+            evaluate.addProperty("expression", "navigator.userAgent");
+            evaluate.addProperty("returnByValue", true);
+            userAgent = session.send("Runtime.evaluate", evaluate).getAsJsonObject("result").get("value").getAsString()
+                .replace("HeadlessChrome/", "Chrome/");
+        }
+        List<String> languages = snapshot.getLanguages();
+
+        if (snapshot.isNavigatorUserAgent() || snapshot.isNavigatorPlatform() || snapshot.isNavigatorLanguages()) {
+            JsonObject override = new JsonObject();
+            override.addProperty("userAgent", userAgent);
+            if (snapshot.isNavigatorLanguages() && languages != null && !languages.isEmpty()) {
+                override.addProperty("acceptLanguage", acceptLanguage(languages));
+            }
+            if (snapshot.isNavigatorPlatform() && snapshot.getNavPlatform() != null) {
+                override.addProperty("platform", snapshot.getNavPlatform());
+            }
+            JsonObject metadata = userAgentMetadata(userAgent, browserVersion);
+            if (metadata != null) {
+                override.add("userAgentMetadata", metadata);
+            }
+            session.send("Emulation.setUserAgentOverride", override);
+        }
+
+        if (snapshot.isNavigatorLanguages() && languages != null && !languages.isEmpty()) {
+            JsonObject locale = new JsonObject();
+            locale.addProperty("locale", languages.get(0));
+            try {
+                session.send("Emulation.setLocaleOverride", locale);
+            } catch (PlaywrightException e) {
+                // The context was created with a locale option, which already wins
+            }
+        }
+
+        if (snapshot.getNavigatorHardwareConcurrency() > 0) {
+            JsonObject concurrency = new JsonObject();
+            concurrency.addProperty("hardwareConcurrency", snapshot.getNavigatorHardwareConcurrency());
+            try {
+                session.send("Emulation.setHardwareConcurrencyOverride", concurrency);
+            } catch (PlaywrightException e) {
+                // Experimental command, missing before Chromium 110
+            }
+        }
+    }
+
+    /**
+     * Builds an {@code Accept-Language} header with descending quality values, e.g. {@code en-US,en;q=0.9}.
+     */
+    static String acceptLanguage(List<String> languages) {
+        StringBuilder header = new StringBuilder(languages.get(0));
+        for (int i = 1; i < languages.size(); i++) {
+            int quality = Math.max(1, 10 - i);
+            header.append(',').append(languages.get(i)).append(";q=0.").append(quality);
+        }
+        return header.toString();
+    }
+
+    /**
+     * Derives client hints matching a Chrome user agent string, so {@code navigator.userAgentData}
+     * and the {@code Sec-CH-UA} headers agree with {@code navigator.userAgent}. Architecture and
+     * bitness come from the platform tokens. A reduced version such as {@code 120.0.0.0} is
+     * replaced by the browser's own full version when the major versions match.
+     *
+     * @param userAgent User agent string
+     * @param browserVersion Version reported by the browser, or null
+     * @return Metadata object, or null if the user agent is not a Chrome one
+     */
+    static JsonObject userAgentMetadata(String userAgent, String browserVersion) {
+        Matcher matcher = CHROME_VERSION.matcher(userAgent);
+        if (!matcher.find()) {
+            return null;
+        }
+        String fullVersion = matcher.group(1);
+        String majorVersion = matcher.group(2);
+        if (fullVersion.equals(majorVersion + ".0.0.0") && browserVersion != null && browserVersion.startsWith(majorVersion + ".")) {
+            fullVersion = browserVersion;
+        }
+
+        String platform;
+        String platformVersion;
+        boolean mobile = false;
+        if (userAgent.contains("Android")) {
+            platform = "Android";
+            platformVersion = version(ANDROID_VERSION, userAgent, "10.0.0");
+            mobile = userAgent.contains("Mobile");
+        } else if (userAgent.contains("Windows")) {
+            platform = "Windows";
+            platformVersion = "10.0.0";
+        } else if (userAgent.contains("Mac OS X")) {
+            platform = "macOS";
+            platformVersion = version(MAC_VERSION, userAgent, "10.15.7");
+        } else if (userAgent.contains("CrOS")) {
+            platform = "Chrome OS";
+            platformVersion = version(CROS_VERSION, userAgent, "14541.0.0");
+        } else {
+            platform = "Linux";
+            platformVersion = LINUX_VERSION;
+        }
+
+        String lower = userAgent.toLowerCase(Locale.ROOT);
+        boolean arm = lower.contains("arm") || lower.contains("aarch64");
+        String bitness;
+        if (lower.contains("win64") || lower.contains("wow64") || lower.contains("x64") || lower.contains("x86_64")
+                || lower.contains("aarch64") || lower.contains("arm64") || platform.equals("macOS")) {
+            bitness = "64";
+        } else if (platform.equals("Windows") || lower.contains("i686") || lower.contains("i386") || lower.contains("armv7")) {
+            bitness = "32";
+        } else {
+            bitness = "";
+        }
+
+        JsonArray brands = new JsonArray();
+        JsonArray fullVersionList = new JsonArray();
+        addBrand(brands, fullVersionList, "Not_A Brand", "8", "8.0.0.0");
+        addBrand(brands, fullVersionList, "Chromium", majorVersion, fullVersion);
+        addBrand(brands, fullVersionList, "Google Chrome", majorVersion, fullVersion);
+
+        JsonObject metadata = new JsonObject();
+        metadata.add("brands", brands);
+        metadata.add("fullVersionList", fullVersionList);
+        metadata.addProperty("fullVersion", fullVersion);
+        metadata.addProperty("platform", platform);
+        metadata.addProperty("platformVersion", platformVersion);
+        metadata.addProperty("architecture", mobile ? "" : arm ? "arm" : "x86");
+        metadata.addProperty("bitness", mobile ? "" : bitness);
+        metadata.addProperty("model", "");
+        metadata.addProperty("mobile", mobile);
+        return metadata;
+    }
+
+    /**
+     * Extracts a dotted version padded to three parts, e.g. {@code 10_15_7} or {@code 13} to {@code 13.0.0}.
+     */
+    private static String version(Pattern pattern, String userAgent, String fallback) {
+        Matcher matcher = pattern.matcher(userAgent);
+        if (!matcher.find()) {
+            return fallback;
+        }
+        String[] parts = matcher.group(1).replace('_', '.').split("\\.");
+        StringBuilder version = new StringBuilder(parts[0]);
+        for (int i = 1; i < 3; i++) {
+            version.append('.').append(i < parts.length ? parts[i] : "0");
+        }
+        return version.toString();
+    }
+
+    private static void addBrand(JsonArray brands, JsonArray fullVersionList, String brand, String major, String full) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("brand", brand);
+        entry.addProperty("version", major);
+        brands.add(entry);
+        JsonObject fullEntry = new JsonObject();
+        fullEntry.addProperty("brand", brand);
+        fullEntry.addProperty("version", full);
+        fullVersionList.add(fullEntry);
+    }
+}
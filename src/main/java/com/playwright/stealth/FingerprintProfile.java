@@ -0,0 +1,192 @@
+package com.playwright.stealth;
+
+import com.microsoft.playwright.Browser;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable set of browser fingerprint values that belong together: user agent, platform,
+ * WebGL vendor and renderer, languages, hardware concurrency and screen size.
+ * Profiles are stored in bulk with {@link StealthProfileStore} and turned into a
+ * {@link StealthConfig} when a page or context needs them.
+ */
+public final class FingerprintProfile {
+
+    private final String userAgent;
+    private final String platform;
+    private final String webglVendor;
+    private final String webglRenderer;
+    private final List<String> languages;
+    private final int hardwareConcurrency;
+    private final int screenWidth;
+    private final int screenHeight;
+
+    private FingerprintProfile(Builder builder) {
+        this(builder.userAgent, builder.platform, builder.webglVendor, builder.webglRenderer,
+            Collections.unmodifiableList(new ArrayList<>(builder.languages)),
+            builder.hardwareConcurrency, builder.screenWidth, builder.screenHeight);
+    }
+
+    /**
+     * Creates a profile around an already unmodifiable language list, without copying it.
+     */
+    FingerprintProfile(String userAgent, String platform, String webglVendor, String webglRenderer,
+                       List<String> languages, int hardwareConcurrency, int screenWidth, int screenHeight) {
+        this.userAgent = userAgent;
+        this.platform = platform;
+        this.webglVendor = webglVendor;
+        this.webglRenderer = webglRenderer;
+        this.languages = languages;
+        this.hardwareConcurrency = hardwareConcurrency;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getUserAgent() { return userAgent; }
+    public String getPlatform() { return platform; }
+    public String getWebglVendor() { return webglVendor; }
+    public String getWebglRenderer() { return webglRenderer; }
+    public List<String> getLanguages() { return languages; }
+    public int getHardwareConcurrency() { return hardwareConcurrency; }
+    public int getScreenWidth() { return screenWidth; }
+    public int getScreenHeight() { return screenHeight; }
+
+    /**
+     * Copies the profile's values into a configuration, leaving its flags untouched.
+     * An empty language list is copied as null, so the scripts fall back to their defaults.
+     * @param config Configuration to update
+     * @return The same configuration
+     * @throws UnsupportedOperationException if the configuration is {@linkplain StealthConfig#isFrozen() frozen}
+     */
+    public StealthConfig applyTo(StealthConfig config) {
+        config.setNavUserAgent(userAgent);
+        config.setNavPlatform(platform);
+        config.setVendor(webglVendor);
+        config.setRenderer(webglRenderer);
+        config.setLanguages(languages.isEmpty() ? null : languages);
+        config.setNavigatorHardwareConcurrency(hardwareConcurrency);
+        return config;
+    }
+
+    /**
+     * Creates a default configuration carrying this profile's values.
+     * @return New configuration
+     */
+    public StealthConfig toConfig() {
+        return applyTo(new StealthConfig());
+    }
+
+    /**
+     * Creates context options with the matching user agent, locale and screen size,
+     * so HTTP headers and {@code window.screen} agree with the injected values.
+     * @return New context options
+     */
+    public Browser.NewContextOptions toContextOptions() {
+        Browser.NewContextOptions options = new Browser.NewContextOptions().setUserAgent(userAgent);
+        if (!languages.isEmpty()) {
+            options.setLocale(languages.get(0));
+        }
+        if (screenWidth > 0 && screenHeight > 0) {
+            options.setScreenSize(screenWidth, screenHeight);
+        }
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FingerprintProfile)) {
+            return false;
+        }
+        FingerprintProfile other = (FingerprintProfile) o;
+        return hardwareConcurrency == other.hardwareConcurrency
+            && screenWidth == other.screenWidth
+            && screenHeight == other.screenHeight
+            && Objects.equals(userAgent, other.userAgent)
+            && Objects.equals(platform, other.platform)
+            && Objects.equals(webglVendor, other.webglVendor)
+            && Objects.equals(webglRenderer, other.webglRenderer)
+            && languages.equals(other.languages);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userAgent, platform, webglVendor, webglRenderer, languages,
+            hardwareConcurrency, screenWidth, screenHeight);
+    }
+
+    @Override
+    public String toString() {
+        return "FingerprintProfile{userAgent=" + userAgent + ", platform=" + platform
+            + ", webglVendor=" + webglVendor + ", webglRenderer=" + webglRenderer
+            + ", languages=" + languages + ", hardwareConcurrency=" + hardwareConcurrency
+            + ", screen=" + screenWidth + "x" + screenHeight + "}";
+    }
+
+    /**
+     * Builder for {@link FingerprintProfile}.
+     */
+    public static class Builder {
+        private String userAgent;
+        private String platform;
+        private String webglVendor;
+        private String webglRenderer;
+        private List<String> languages = Collections.emptyList();
+        private int hardwareConcurrency;
+        private int screenWidth;
+        private int screenHeight;
+
+        private Builder() {}
+
+        public Builder userAgent(String userAgent) {
+            this.userAgent = userAgent;
+            return this;
+        }
+
+        public Builder platform(String platform) {
+            this.platform = platform;
+            return this;
+        }
+
+        public Builder webglVendor(String webglVendor) {
+            this.webglVendor = webglVendor;
+            return this;
+        }
+
+        public Builder webglRenderer(String webglRenderer) {
+            this.webglRenderer = webglRenderer;
+            return this;
+        }
+
+        public Builder languages(List<String> languages) {
+            if (languages == null) {
+                throw new IllegalArgumentException("Languages cannot be null");
+            }
+            this.languages = languages;
+            return this;
+        }
+
+        public Builder hardwareConcurrency(int hardwareConcurrency) {
+            this.hardwareConcurrency = hardwareConcurrency;
+            return this;
+        }
+
+        public Builder screenSize(int width, int height) {
+            this.screenWidth = width;
+            this.screenHeight = height;
+            return this;
+        }
+
+        public FingerprintProfile build() {
+            return new FingerprintProfile(this);
+        }
+    }
+}
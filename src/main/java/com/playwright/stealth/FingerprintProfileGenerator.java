@@ -0,0 +1,270 @@
+package com.playwright.stealth;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Deterministic generator of internally consistent {@link FingerprintProfile}s.
+ * The operating system is drawn first, and everything else comes from that OS's own tables:
+ * the user agent and {@code navigator.platform}, a WebGL vendor and renderer that ship on it,
+ * plausible core counts and screen sizes. Languages are drawn from locale presets.
+ *
+ * <p>Profile #N depends only on the seed and N, so workers can pick their own profiles without
+ * coordination and a run can be reproduced exactly. Random numbers come from SplitMix64
+ * addressed by counter, tables are cumulative {@code int} weights, and all strings and
+ * language lists are built once, so a profile costs one small allocation.</p>
+ *
+ * <pre>{@code
+ * FingerprintProfileGenerator generator = FingerprintProfileGenerator.builder().seed(42).build();
+ * StealthConfig config = generator.toConfig(workerId);
+ * StealthProfileStore.write(path, generator.profiles(0, 1_000_000));
+ * }</pre>
+ */
+public final class FingerprintProfileGenerator {
+
+    static final int WINDOWS = 0;
+    static final int MAC = 1;
+    static final int LINUX = 2;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final int[] OS_WEIGHTS = cumulative(72, 18, 10);
+    private static final String[] PLATFORMS = {"Win32", "MacIntel", "Linux x86_64"};
+    private static final String[] UA_SYSTEMS = {
+        "Windows NT 10.0; Win64; x64",
+        "Macintosh; Intel Mac OS X 10_15_7",
+        "X11; Linux x86_64"
+    };
+
+    private static final String[][] GPU_VENDORS = {
+        {"Google Inc. (NVIDIA)", "Google Inc. (NVIDIA)", "Google Inc. (AMD)", "Google Inc. (Intel)", "Google Inc. (Intel)"},
+        {"Google Inc. (Apple)", "Google Inc. (Apple)", "Google Inc. (Apple)", "Google Inc. (Intel Inc.)"},
+        {"Google Inc. (Intel)", "Google Inc. (NVIDIA Corporation)", "Google Inc. (AMD)"}
+    };
+    private static final String[][] GPU_RENDERERS = {
+        {
+            "ANGLE (NVIDIA, NVIDIA GeForce GTX 1660 SUPER Direct3D11 vs_5_0 ps_5_0, D3D11)",
+            "ANGLE (NVIDIA, NVIDIA GeForce RTX 3060 Direct3D11 vs_5_0 ps_5_0, D3D11)",
+            "ANGLE (AMD, AMD Radeon RX 580 Series Direct3D11 vs_5_0 ps_5_0, D3D11)",
+            "ANGLE (Intel, Intel(R) UHD Graphics 620 Direct3D11 vs_5_0 ps_5_0, D3D11)",
+            "ANGLE (Intel, Intel(R) Iris(R) Xe Graphics Direct3D11 vs_5_0 ps_5_0, D3D11)"
+        },
+        {
+            "ANGLE (Apple, ANGLE Metal Renderer: Apple M1, Unspecified Version)",
+            "ANGLE (Apple, ANGLE Metal Renderer: Apple M2, Unspecified Version)",
+            "ANGLE (Apple, ANGLE Metal Renderer: Apple M1 Pro, Unspecified Version)",
+            "ANGLE (Intel Inc., Intel(R) Iris(TM) Plus Graphics 655, OpenGL 4.1)"
+        },
+        {
+            "ANGLE (Intel, Mesa Intel(R) UHD Graphics 620 (KBL GT2), OpenGL 4.6)",
+            "ANGLE (NVIDIA Corporation, NVIDIA GeForce GTX 1050 Ti/PCIe/SSE2, OpenGL 4.5.0)",
+            "ANGLE (AMD, AMD Radeon RX 6600 (navi23, LLVM 15.0.7, DRM 3.49, 6.1.0), OpenGL 4.6)"
+        }
+    };
+    private static final int[][] GPU_WEIGHTS = {
+        cumulative(20, 18, 12, 30, 20),
+        cumulative(40, 25, 20, 15),
+        cumulative(50, 30, 20)
+    };
+
+    // Core counts follow the GPU on Apple hardware and the OS elsewhere
+    private static final int[][] CORES = {
+        {4, 6, 8, 12, 16},
+        {8, 8, 10, 4},
+        {4, 8, 12, 16}
+    };
+    private static final int[][] CORE_WEIGHTS = {
+        cumulative(25, 15, 35, 15, 10),
+        null,
+        cumulative(30, 40, 15, 15)
+    };
+
+    private static final int[][] SCREEN_WIDTHS = {
+        {1920, 1366, 1536, 2560, 1440},
+        {1440, 1512, 1728, 2560},
+        {1920, 2560, 1366}
+    };
+    private static final int[][] SCREEN_HEIGHTS = {
+        {1080, 768, 864, 1440, 900},
+        {900, 982, 1117, 1440},
+        {1080, 1440, 768}
+    };
+    private static final int[][] SCREEN_WEIGHTS = {
+        cumulative(45, 15, 15, 15, 10),
+        cumulative(30, 35, 20, 15),
+        cumulative(60, 25, 15)
+    };
+
+    private static final List<List<String>> LANGUAGES = Arrays.asList(
+        languages("en-US", "en"),
+        languages("en-GB", "en"),
+        languages("de-DE", "de", "en-US", "en"),
+        languages("fr-FR", "fr", "en-US", "en"),
+        languages("es-ES", "es"),
+        languages("pt-BR", "pt", "en-US", "en"),
+        languages("ja", "en-US", "en")
+    );
+    private static final int[] LANGUAGE_WEIGHTS = cumulative(55, 10, 9, 8, 7, 7, 4);
+
+    private final long seed;
+    private final int[] versionWeights;
+    // Precomputed user agents, indexed [os][version]
+    private final String[][] userAgents;
+
+    private FingerprintProfileGenerator(Builder builder) {
+        this.seed = builder.seed;
+        int[] weights = new int[builder.chromeVersions.length];
+        Arrays.fill(weights, 1);
+        this.versionWeights = cumulative(weights);
+        this.userAgents = new String[UA_SYSTEMS.length][builder.chromeVersions.length];
+        for (int os = 0; os < UA_SYSTEMS.length; os++) {
+            for (int v = 0; v < builder.chromeVersions.length; v++) {
+                userAgents[os][v] = "Mozilla/5.0 (" + UA_SYSTEMS[os] + ") AppleWebKit/537.36 (KHTML, like Gecko) Chrome/"
+                    + builder.chromeVersions[v] + ".0.0.0 Safari/537.36";
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Generates profile #N for this generator's seed.
+     *
+     * @param index Profile number; the same index always yields the same profile
+     * @return The profile
+     */
+    public FingerprintProfile get(long index) {
+        long base = mix(seed ^ mix(index * GOLDEN_GAMMA));
+        int os = pick(OS_WEIGHTS, random(base, 0));
+        int gpu = pick(GPU_WEIGHTS[os], random(base, 1));
+        int cores = os == MAC ? CORES[os][gpu] : CORES[os][pick(CORE_WEIGHTS[os], random(base, 2))];
+        int screen = pick(SCREEN_WEIGHTS[os], random(base, 3));
+        return new FingerprintProfile(
+            userAgents[os][pick(versionWeights, random(base, 4))],
+            PLATFORMS[os],
+            GPU_VENDORS[os][gpu],
+            GPU_RENDERERS[os][gpu],
+            LANGUAGES.get(pick(LANGUAGE_WEIGHTS, random(base, 5))),
+            cores,
+            SCREEN_WIDTHS[os][screen],
+            SCREEN_HEIGHTS[os][screen]);
+    }
+
+    /**
+     * Creates a default configuration carrying profile #N.
+     *
+     * @param index Profile number
+     * @return New configuration
+     */
+    public StealthConfig toConfig(long index) {
+        return get(index).toConfig();
+    }
+
+    /**
+     * Returns a lazy view of consecutive profiles, e.g. to feed {@link StealthProfileStore#write(java.nio.file.Path, Iterable)}.
+     *
+     * @param start First profile number
+     * @param count Number of profiles
+     * @return Iterable generating the profiles on demand
+     */
+    public Iterable<FingerprintProfile> profiles(long start, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        return () -> new Iterator<FingerprintProfile>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public FingerprintProfile next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                return get(start + next++);
+            }
+        };
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The n-th output of the SplitMix64 stream starting at the given state.
+     */
+    private static long random(long state, int n) {
+        return mix(state + (n + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Picks an index from cumulative weights using the high bits of a random value.
+     */
+    static int pick(int[] cumulativeWeights, long random) {
+        int total = cumulativeWeights[cumulativeWeights.length - 1];
+        int target = (int) (((random >>> 32) * total) >>> 32);
+        int i = 0;
+        while (target >= cumulativeWeights[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int[] cumulative(int... weights) {
+        int[] result = new int[weights.length];
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            result[i] = sum;
+        }
+        return result;
+    }
+
+    private static List<String> languages(String... languages) {
+        return Collections.unmodifiableList(Arrays.asList(languages));
+    }
+
+    /**
+     * Builder for {@link FingerprintProfileGenerator}.
+     */
+    public static class Builder {
+        private long seed;
+        // Keep the claimed version close to the bundled Chromium, a mismatch is itself a signal
+        private int[] chromeVersions = {119, 120};
+
+        private Builder() {}
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets the Chrome major versions to claim, drawn with equal weight.
+         */
+        public Builder chromeVersions(int... chromeVersions) {
+            if (chromeVersions == null || chromeVersions.length == 0) {
+                throw new IllegalArgumentException("At least one Chrome version is required");
+            }
+            this.chromeVersions = chromeVersions.clone();
+            return this;
+        }
+
+        public FingerprintProfileGenerator build() {
+            return new FingerprintProfileGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.playwright.stealth;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe, in-memory {@link StealthMetrics} implementation without external dependencies.
+ * Counters are {@link LongAdder}s and injection latency goes into a fixed-size log-linear
+ * histogram, so recording never allocates. Call {@link #snapshot()} to scrape the values into
+ * any monitoring system.
+ *
+ * <pre>{@code
+ * InMemoryStealthMetrics metrics = new InMemoryStealthMetrics();
+ * Stealth.setMetrics(metrics);
+ * ...
+ * InMemoryStealthMetrics.Snapshot snapshot = metrics.snapshot();
+ * long p99 = snapshot.getInjectionLatency().getValueAtPercentile(99.0);
+ * }</pre>
+ */
+public class InMemoryStealthMetrics implements StealthMetrics {
+
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder contexts = new LongAdder();
+    private final LongAdder scripts = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final Map<Long, LongAdder> configCounts = new ConcurrentHashMap<>();
+    private final Histogram injectionLatency = new Histogram();
+
+    @Override
+    public void pageStealthed(long configFingerprint, int scripts, long bytes, long nanos) {
+        pages.increment();
+        record(configFingerprint, scripts, bytes, nanos);
+    }
+
+    @Override
+    public void contextStealthed(long configFingerprint, int scripts, long bytes, long nanos) {
+        contexts.increment();
+        record(configFingerprint, scripts, bytes, nanos);
+    }
+
+    private void record(long configFingerprint, int scripts, long bytes, long nanos) {
+        this.scripts.add(scripts);
+        this.bytes.add(bytes);
+        injectionLatency.record(nanos);
+        LongAdder count = configCounts.get(configFingerprint);
+        if (count == null) {
+            count = configCounts.computeIfAbsent(configFingerprint, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Override
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /**
+     * Returns a point-in-time copy of all values. Values recorded concurrently may or may not be included.
+     *
+     * @return Metrics snapshot
+     */
+    public Snapshot snapshot() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : configCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return new Snapshot(pages.sum(), contexts.sum(), scripts.sum(), bytes.sum(),
+            cacheHits.sum(), cacheMisses.sum(), Collections.unmodifiableMap(counts), injectionLatency.snapshot());
+    }
+
+    /**
+     * Log-linear histogram of nanosecond values: every power of two is split into
+     * {@value #SUB_BUCKETS} linear buckets, so recorded values are accurate to within 12.5%.
+     */
+    static final class Histogram {
+        static final int SUB_BUCKET_BITS = 3;
+        static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            counts.incrementAndGet(index(value));
+            total.increment();
+            sum.add(value);
+        }
+
+        static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /** Largest value that maps to the given bucket. */
+        static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = index % SUB_BUCKETS;
+            long lower = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+            return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        HistogramSnapshot snapshot() {
+            long[] copy = new long[counts.length()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = counts.get(i);
+            }
+            return new HistogramSnapshot(copy, total.sum(), sum.sum());
+        }
+    }
+
+    /**
+     * Point-in-time copy of a latency histogram. All values are in nanoseconds.
+     */
+    public static final class HistogramSnapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+
+        HistogramSnapshot(long[] counts, long count, long sum) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public long getCount() { return count; }
+
+        public double getMean() { return count == 0 ? 0 : (double) sum / count; }
+
+        /**
+         * Returns the upper bound of the bucket holding the given percentile.
+         *
+         * @param percentile Percentile between 0 and 100
+         * @return Value in nanoseconds, or 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            long recorded = 0;
+            for (long c : counts) {
+                recorded += c;
+            }
+            if (recorded == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * recorded));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Histogram.upperBound(i);
+                }
+            }
+            return getMax();
+        }
+
+        public long getMax() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return Histogram.upperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.0fns p50=%dns p99=%dns max=%dns",
+                count, getMean(), getValueAtPercentile(50), getValueAtPercentile(99), getMax());
+        }
+    }
+
+    /**
+     * Point-in-time copy of all metrics.
+     */
+    public static final class Snapshot {
+        private final long pagesStealthed;
+        private final long contextsStealthed;
+        private final long scriptsInjected;
+        private final long bytesInjected;
+        private final long cacheHits;
+        private final long cacheMisses;
+        private final Map<Long, Long> configCounts;
+        private final HistogramSnapshot injectionLatency;
+
+        Snapshot(long pagesStealthed, long contextsStealthed, long scriptsInjected, long bytesInjected,
+                 long cacheHits, long cacheMisses, Map<Long, Long> configCounts, HistogramSnapshot injectionLatency) {
+            this.pagesStealthed = pagesStealthed;
+            this.contextsStealthed = contextsStealthed;
+            this.scriptsInjected = scriptsInjected;
+            this.bytesInjected = bytesInjected;
+            this.cacheHits = cacheHits;
+            this.cacheMisses = cacheMisses;
+            this.configCounts = configCounts;
+            this.injectionLatency = injectionLatency;
+        }
+
+        public long getPagesStealthed() { return pagesStealthed; }
+        public long getContextsStealthed() { return contextsStealthed; }
+        public long getScriptsInjected() { return scriptsInjected; }
+        public long getBytesInjected() { return bytesInjected; }
+        public long getCacheHits() { return cacheHits; }
+        public long getCacheMisses() { return cacheMisses; }
+
+        /** Number of injections per configuration, keyed by {@link StealthConfig#fingerprint()}. */
+        public Map<Long, Long> getConfigCounts() { return configCounts; }
+
+        public HistogramSnapshot getInjectionLatency() { return injectionLatency; }
+
+        @Override
+        public String toString() {
+            return "Snapshot{pages=" + pagesStealthed + ", contexts=" + contextsStealthed
+                + ", scripts=" + scriptsInjected + ", bytes=" + bytesInjected
+                + ", cacheHits=" + cacheHits + ", cacheMisses=" + cacheMisses
+                + ", configs=" + configCounts.size() + ", latency={" + injectionLatency + "}}";
+        }
+    }
+}
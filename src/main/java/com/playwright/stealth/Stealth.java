@@ -1,15 +1,38 @@
 package com.playwright.stealth;
 
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.CDPSession;
 import com.microsoft.playwright.Page;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Main class for applying stealth techniques to Playwright pages.
  * This class provides both synchronous and asynchronous methods to make
  * Playwright-controlled browsers appear more like regular user browsers.
+ * 
+ * <p>Playwright objects are not thread-safe and must only be used from the thread that owns
+ * their {@code Playwright} instance. The asynchronous methods therefore never use the common
+ * ForkJoinPool: without an executor they run on the calling thread, otherwise on the given
+ * executor, which should be the one driving that {@code Playwright} instance.</p>
+ * 
+ * <p>Applying stealth is idempotent. Pages and contexts are remembered in a weak-keyed registry,
+ * so a second call for the same page or context, or for a page of a stealthed context, does
+ * nothing and the first configuration stays in effect. The scripts leave no marker in the page,
+ * so the registry alone keeps a window from being patched twice: a context cannot be stealthed
+ * after one of its pages.</p>
  */
 public class Stealth {
     
+    private static volatile StealthMetrics metrics = StealthMetrics.NOOP;
+    
+    // Pages and contexts stealth was applied to, dropped once Playwright lets go of them
+    private static final Map<Object, Boolean> stealthed = Collections.synchronizedMap(new WeakHashMap<>());
+    
     /**
      * Applies stealth techniques to a Playwright page synchronously.
      * This method injects JavaScript code that hides automation indicators
@@ -23,6 +46,12 @@ public class Stealth {
     
     /**
      * Applies stealth techniques to a Playwright page synchronously with custom configuration.
+     * A {@link StealthSnapshot} can be passed here to reuse its precomputed scripts directly.
+     * With {@link StealthTransport#CDP} on Chromium, the current document is stealthed as well.
+     * With {@link StealthConfig#isNativeEmulation()} on Chromium, user agent, platform, languages and
+     * hardware concurrency are also set through CDP emulation, so headers and client hints match;
+     * the JavaScript patches still run, so this costs extra CDP calls per page rather than saving any.
+     * Does nothing if the page or its context is already stealthed.
      * 
      * @param page The Playwright page to apply stealth techniques to
      * @param config Custom stealth configuration
@@ -31,21 +60,80 @@ public class Stealth {
         if (page == null) {
             throw new IllegalArgumentException("Page cannot be null");
         }
-        
+        register(page, config);
+    }
+    
+    /**
+     * Registers and stealths a page unless it or its context is already stealthed.
+     * 
+     * @return true if this call stealthed the page
+     */
+    private static boolean register(Page page, StealthConfig config) {
+        if (stealthed.containsKey(page.context()) || stealthed.putIfAbsent(page, Boolean.TRUE) != null) {
+            return false;
+        }
+        try {
+            apply(page, config);
+        } catch (RuntimeException e) {
+            stealthed.remove(page);
+            throw e;
+        }
+        return true;
+    }
+    
+    private static void apply(Page page, StealthConfig config) {
         if (config == null) {
             config = new StealthConfig();
         }
         
+        // Snapshots carry their own precomputed output, anything else goes through the cache
+        StealthSnapshot snapshot = StealthScriptCache.shared().get(config);
+        StealthMetrics recorder = metrics;
+        long start = recorder == StealthMetrics.NOOP ? 0 : System.nanoTime();
+        
+        CDPSession session = null;
+        if (snapshot.getTransport() == StealthTransport.CDP || snapshot.isNativeEmulation()) {
+            session = CdpTransport.openSession(page);
+        }
+        if (session != null && snapshot.isNativeEmulation()) {
+            // The page session does not reach out-of-process iframes, workers or popups, so the
+            // JavaScript patches stay in the scripts and cover those targets. The session is not
+            // detached, as the emulation overrides only last as long as it does
+            Browser browser = page.context().browser();
+            CdpTransport.emulate(session, snapshot, browser == null ? null : browser.version());
+        }
+        
+        if (session != null && snapshot.getTransport() == StealthTransport.CDP) {
+            CdpTransport.inject(session, snapshot);
+            if (recorder != StealthMetrics.NOOP) {
+                recorder.pageStealthed(snapshot.fingerprint(), 1, snapshot.getBundledScriptSize(), System.nanoTime() - start);
+            }
+            return;
+        }
+        
+        if (snapshot.isBundleScripts()) {
+            // Register everything with a single driver round-trip
+            page.addInitScript(snapshot.getBundledScript());
+            if (recorder != StealthMetrics.NOOP) {
+                recorder.pageStealthed(snapshot.fingerprint(), 1, snapshot.getBundledScriptSize(), System.nanoTime() - start);
+            }
+            return;
+        }
+        
         // Apply all enabled stealth scripts
-        for (String script : config.getEnabledScripts()) {
+        for (String script : snapshot.getEnabledScripts()) {
             page.addInitScript(script);
         }
+        if (recorder != StealthMetrics.NOOP) {
+            recorder.pageStealthed(snapshot.fingerprint(), snapshot.getEnabledScripts().size(), snapshot.getScriptsSize(), System.nanoTime() - start);
+        }
     }
     
     /**
      * Applies stealth techniques to a Playwright page asynchronously.
      * This method injects JavaScript code that hides automation indicators
      * and makes the browser appear more like a regular user browser.
+     * The work runs on the calling thread, which is assumed to own the page.
      * 
      * @param page The Playwright page to apply stealth techniques to
      * @return CompletableFuture that completes when all stealth scripts are applied
@@ -56,13 +144,238 @@ public class Stealth {
     
     /**
      * Applies stealth techniques to a Playwright page asynchronously with custom configuration.
+     * The work runs on the calling thread, which is assumed to own the page, so the returned future
+     * is already complete. Earlier versions ran on the common ForkJoinPool and returned before the
+     * scripts were registered; pass the page's owning executor to
+     * {@link #stealthAsync(Page, StealthConfig, Executor)} to keep the call from blocking.
      * 
      * @param page The Playwright page to apply stealth techniques to
      * @param config Custom stealth configuration
      * @return CompletableFuture that completes when all stealth scripts are applied
      */
     public static CompletableFuture<Void> stealthAsync(Page page, StealthConfig config) {
-        return CompletableFuture.runAsync(() -> stealth(page, config));
+        return stealthAsync(page, config, null);
+    }
+    
+    /**
+     * Applies stealth techniques to a Playwright page on the given executor.
+     * The executor must run tasks on the thread that owns the page's Playwright instance,
+     * for example the single-thread executor that created it.
+     * 
+     * @param page The Playwright page to apply stealth techniques to
+     * @param config Custom stealth configuration
+     * @param executor Executor to run on, or null to run on the calling thread
+     * @return CompletableFuture that completes when all stealth scripts are applied
+     */
+    public static CompletableFuture<Void> stealthAsync(Page page, StealthConfig config, Executor executor) {
+        return runAsync(() -> stealth(page, config), executor);
+    }
+    
+    /**
+     * Applies stealth techniques to every page of a browser context synchronously.
+     * The bundled script is registered once on the context, so all pages and popups
+     * opened in it inherit the stealth scripts without further injection calls.
+     * 
+     * @param context The Playwright browser context to apply stealth techniques to
+     */
+    public static void stealthContext(BrowserContext context) {
+        stealthContext(context, new StealthConfig());
+    }
+    
+    /**
+     * Applies stealth techniques to every page of a browser context synchronously with custom configuration.
+     * The scripts are always registered as a single bundle, regardless of {@link StealthConfig#isBundleScripts()}.
+     * Does nothing if the context is already stealthed.
+     * 
+     * @param context The Playwright browser context to apply stealth techniques to
+     * @param config Custom stealth configuration
+     * @throws IllegalStateException if one of the context's pages is already stealthed, since
+     *         its windows would be patched twice
+     */
+    public static void stealthContext(BrowserContext context, StealthConfig config) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        register(context, config);
+    }
+    
+    /**
+     * Registers and stealths a context unless it is already stealthed.
+     * 
+     * @return true if this call stealthed the context
+     */
+    private static boolean register(BrowserContext context, StealthConfig config) {
+        if (stealthed.containsKey(context)) {
+            return false;
+        }
+        for (Page page : context.pages()) {
+            if (stealthed.containsKey(page)) {
+                throw new IllegalStateException("A page of this context is already stealthed; stealth the context before its pages");
+            }
+        }
+        if (stealthed.putIfAbsent(context, Boolean.TRUE) != null) {
+            return false;
+        }
+        try {
+            applyContext(context, config);
+        } catch (RuntimeException e) {
+            stealthed.remove(context);
+            throw e;
+        }
+        return true;
+    }
+    
+    private static void applyContext(BrowserContext context, StealthConfig config) {
+        if (config == null) {
+            config = new StealthConfig();
+        }
+        
+        // Emulation overrides are per page, so contexts rely on the JavaScript patches alone
+        StealthSnapshot snapshot = StealthScriptCache.shared().get(config);
+        StealthMetrics recorder = metrics;
+        long start = recorder == StealthMetrics.NOOP ? 0 : System.nanoTime();
+        
+        context.addInitScript(snapshot.getBundledScript());
+        if (recorder != StealthMetrics.NOOP) {
+            recorder.contextStealthed(snapshot.fingerprint(), 1, snapshot.getBundledScriptSize(), System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Applies stealth techniques to every page of a browser context asynchronously.
+     * 
+     * @param context The Playwright browser context to apply stealth techniques to
+     * @return CompletableFuture that completes when the stealth bundle is registered
+     */
+    public static CompletableFuture<Void> stealthContextAsync(BrowserContext context) {
+        return stealthContextAsync(context, new StealthConfig());
+    }
+    
+    /**
+     * Applies stealth techniques to every page of a browser context asynchronously with custom configuration.
+     * 
+     * @param context The Playwright browser context to apply stealth techniques to
+     * @param config Custom stealth configuration
+     * @return CompletableFuture that completes when the stealth bundle is registered
+     */
+    public static CompletableFuture<Void> stealthContextAsync(BrowserContext context, StealthConfig config) {
+        return stealthContextAsync(context, config, null);
+    }
+    
+    /**
+     * Applies stealth techniques to every page of a browser context on the given executor.
+     * The executor must run tasks on the thread that owns the context's Playwright instance.
+     * 
+     * @param context The Playwright browser context to apply stealth techniques to
+     * @param config Custom stealth configuration
+     * @param executor Executor to run on, or null to run on the calling thread
+     * @return CompletableFuture that completes when the stealth bundle is registered
+     */
+    public static CompletableFuture<Void> stealthContextAsync(BrowserContext context, StealthConfig config, Executor executor) {
+        return runAsync(() -> stealthContext(context, config), executor);
+    }
+    
+    /**
+     * Applies stealth techniques to a page and blocks images, media, fonts and common trackers,
+     * using {@link StealthRequestBlocker#defaults()}.
+     * 
+     * @param page The Playwright page to apply stealth techniques to
+     * @param config Custom stealth configuration
+     */
+    public static void stealthLean(Page page, StealthConfig config) {
+        stealthLean(page, config, StealthRequestBlocker.defaults());
+    }
+    
+    /**
+     * Applies stealth techniques to a page and installs a request blocker on it.
+     * Does nothing if the page or its context is already stealthed, so the blocker is installed once.
+     * 
+     * @param page The Playwright page to apply stealth techniques to
+     * @param config Custom stealth configuration
+     * @param blocker Request blocker, or null for {@link StealthRequestBlocker#defaults()}
+     */
+    public static void stealthLean(Page page, StealthConfig config, StealthRequestBlocker blocker) {
+        if (page == null) {
+            throw new IllegalArgumentException("Page cannot be null");
+        }
+        if (register(page, config)) {
+            (blocker == null ? StealthRequestBlocker.defaults() : blocker).install(page);
+        }
+    }
+    
+    /**
+     * Applies stealth techniques to every page of a browser context and installs a request blocker on it.
+     * Does nothing if the context is already stealthed, so the blocker is installed once.
+     * 
+     * @param context The Playwright browser context to apply stealth techniques to
+     * @param config Custom stealth configuration
+     * @param blocker Request blocker, or null for {@link StealthRequestBlocker#defaults()}
+     */
+    public static void stealthContextLean(BrowserContext context, StealthConfig config, StealthRequestBlocker blocker) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        if (register(context, config)) {
+            (blocker == null ? StealthRequestBlocker.defaults() : blocker).install(context);
+        }
+    }
+    
+    /**
+     * Returns whether stealth was applied to a page, directly or through its context.
+     * 
+     * @param page The Playwright page
+     * @return true if {@link #stealth(Page, StealthConfig)} would do nothing for this page
+     */
+    public static boolean isStealthed(Page page) {
+        if (page == null) {
+            throw new IllegalArgumentException("Page cannot be null");
+        }
+        return stealthed.containsKey(page) || stealthed.containsKey(page.context());
+    }
+    
+    /**
+     * Returns whether stealth was applied to a browser context.
+     * 
+     * @param context The Playwright browser context
+     * @return true if {@link #stealthContext(BrowserContext, StealthConfig)} would do nothing for this context
+     */
+    public static boolean isStealthed(BrowserContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        return stealthed.containsKey(context);
+    }
+    
+    private static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        if (executor != null) {
+            return CompletableFuture.runAsync(task, executor);
+        }
+        
+        try {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Installs the metrics implementation that records every stealth application and
+     * script cache lookup from now on.
+     * 
+     * @param stealthMetrics Metrics implementation, or null to stop recording
+     */
+    public static void setMetrics(StealthMetrics stealthMetrics) {
+        metrics = stealthMetrics == null ? StealthMetrics.NOOP : stealthMetrics;
+    }
+    
+    /**
+     * Returns the installed metrics implementation.
+     * 
+     * @return The current metrics, {@link StealthMetrics#NOOP} by default
+     */
+    public static StealthMetrics getMetrics() {
+        return metrics;
     }
     
     /**
@@ -85,6 +398,8 @@ public class Stealth {
     
     /**
      * Builder class for creating StealthConfig instances with fluent API.
+     * {@link #build()} returns a fresh copy each time, so the builder can be reused;
+     * {@link #snapshot()} returns an immutable configuration that is safe to share across threads.
      */
     public static class StealthConfigBuilder {
         private final StealthConfig config = new StealthConfig();
@@ -209,8 +524,42 @@ public class Stealth {
             return this;
         }
         
+        public StealthConfigBuilder bundleScripts(boolean bundleScripts) {
+            config.setBundleScripts(bundleScripts);
+            return this;
+        }
+        
+        public StealthConfigBuilder minifyScripts(boolean minifyScripts) {
+            config.setMinifyScripts(minifyScripts);
+            return this;
+        }
+        
+        public StealthConfigBuilder transport(StealthTransport transport) {
+            config.setTransport(transport);
+            return this;
+        }
+        
+        public StealthConfigBuilder nativeEmulation(boolean nativeEmulation) {
+            config.setNativeEmulation(nativeEmulation);
+            return this;
+        }
+        
+        public StealthConfigBuilder proxyFree(boolean proxyFree) {
+            config.setProxyFree(proxyFree);
+            return this;
+        }
+        
+        public StealthConfigBuilder lazyEvasions(boolean lazyEvasions) {
+            config.setLazyEvasions(lazyEvasions);
+            return this;
+        }
+        
         public StealthConfig build() {
-            return config;
+            return new StealthConfig(config);
+        }
+        
+        public StealthSnapshot snapshot() {
+            return config.snapshot();
         }
     }
 }
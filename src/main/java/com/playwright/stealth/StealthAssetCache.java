@@ -0,0 +1,646 @@
+package com.playwright.stealth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.Route;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in, on-disk cache for static responses, shared by every page and context it is installed on.
+ * A single {@code route} handler answers repeat requests with {@link Route#fulfill} straight from
+ * disk. Misses fall back to the browser, so the request goes out with the browser's own TLS and
+ * HTTP/2 fingerprint, and a {@code response} listener stores the result if the response allows it.
+ *
+ * <p>Entries are keyed by method, URL and the configured request headers. Bodies are stored
+ * content-addressed under their SHA-256, so the same bundle served from several URLs is kept
+ * once, and large bodies are read back through a memory-mapped file. Only {@code 200} responses
+ * to {@code GET} requests with an explicit {@code max-age}, {@code s-maxage} or {@code Expires}
+ * are stored; {@code no-store}, {@code no-cache}, {@code private} and {@code Set-Cookie} responses
+ * never are, and neither are responses that {@code Vary} on a request header outside the key.
+ * When the total body size exceeds the limit, the least recently used entries are evicted.</p>
+ *
+ * <pre>{@code
+ * StealthAssetCache cache = StealthAssetCache.builder(Paths.get("asset-cache"))
+ *     .maxSize(1L << 30)
+ *     .build();
+ * cache.install(context);
+ * ...
+ * cache.close();
+ * }</pre>
+ *
+ * <p>Playwright runs the most recently registered route handler first, so install the cache
+ * before a {@link StealthRequestBlocker}; blocked requests then never reach the cache.
+ * Every change is appended to a journal in the cache directory as it happens, and {@link #close()}
+ * compacts it into the index. The next {@link Builder#build()} reads both, so a process that dies
+ * without closing the cache still starts warm, and removes stored bodies no entry refers to.</p>
+ */
+public final class StealthAssetCache implements AutoCloseable {
+
+    static final String INDEX_FILE = "index.json";
+    static final String JOURNAL_FILE = "journal.jsonl";
+    private static final String OBJECTS_DIR = "objects";
+    private static final int MMAP_THRESHOLD = 16 * 1024;
+    private static final Set<String> DROPPED_HEADERS = new HashSet<>(Arrays.asList(
+        "content-encoding", "content-length", "transfer-encoding", "connection", "set-cookie", "date", "age"));
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path directory;
+    private final Path objects;
+    private final long maxSize;
+    private final Set<String> resourceTypes;
+    private final List<String> keyHeaders;
+    private final Consumer<Route> handler = this::handle;
+    private final Consumer<Response> responseHandler = this::onResponse;
+
+    // Guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, ObjectRef> objectRefs = new HashMap<>();
+    private long size;
+    private Writer journal;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private StealthAssetCache(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.objects = directory.resolve(OBJECTS_DIR);
+        this.maxSize = builder.maxSize;
+        this.resourceTypes = new HashSet<>(builder.resourceTypes);
+        this.keyHeaders = new ArrayList<>(builder.keyHeaders);
+        Files.createDirectories(objects);
+        load();
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Installs the cache on a page.
+     * @param page Page to install on
+     */
+    public void install(Page page) {
+        if (page == null) {
+            throw new IllegalArgumentException("Page cannot be null");
+        }
+        page.route("**/*", handler);
+        page.onResponse(responseHandler);
+    }
+
+    /**
+     * Installs the cache on every page of a context.
+     * @param context Context to install on
+     */
+    public void install(BrowserContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        context.route("**/*", handler);
+        context.onResponse(responseHandler);
+    }
+
+    private void handle(Route route) {
+        Request request = route.request();
+        if (!"GET".equals(request.method()) || !resourceTypes.contains(request.resourceType())) {
+            route.fallback();
+            return;
+        }
+
+        String key = key(request.url(), request.headers());
+        Entry entry = lookup(key, System.currentTimeMillis());
+        if (entry != null) {
+            byte[] body = read(entry.hash, entry.size);
+            if (body != null) {
+                hits.increment();
+                route.fulfill(new Route.FulfillOptions()
+                    .setStatus(entry.status)
+                    .setHeaders(entry.headers)
+                    .setBodyBytes(body));
+                return;
+            }
+            remove(key);
+        }
+
+        // The browser fetches misses itself, onResponse stores what comes back
+        misses.increment();
+        route.fallback();
+    }
+
+    private void onResponse(Response response) {
+        Request request = response.request();
+        if (!"GET".equals(request.method()) || !resourceTypes.contains(request.resourceType()) || response.fromServiceWorker()) {
+            return;
+        }
+        try {
+            Map<String, String> headers = response.allHeaders();
+            long now = System.currentTimeMillis();
+            long expires = expiresAt(response.status(), headers, now);
+            if (expires == 0 || !varyCovered(headers.get("vary"), keyHeaders)) {
+                return;
+            }
+            String key = key(request.url(), request.headers());
+            if (lookup(key, now) != null) {
+                // Answered from the cache
+                return;
+            }
+            store(key, response.status(), headers, response.body(), expires);
+        } catch (PlaywrightException e) {
+            // The page went away or the body was evicted, the next miss tries again
+        }
+    }
+
+    /**
+     * Builds the cache key from the URL and the configured request headers.
+     */
+    String key(String url, Map<String, String> requestHeaders) {
+        if (keyHeaders.isEmpty()) {
+            return "GET " + url;
+        }
+        StringBuilder key = new StringBuilder("GET ").append(url);
+        for (String name : keyHeaders) {
+            String value = requestHeaders.get(name);
+            key.append('\n').append(name).append(':').append(value == null ? "" : value);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the expiry time of a response in epoch milliseconds, or 0 if it must not be stored.
+     */
+    static long expiresAt(int status, Map<String, String> headers, long now) {
+        if (status != 200 || headers.containsKey("set-cookie") || "*".equals(headers.get("vary"))) {
+            return 0;
+        }
+        String cacheControl = headers.get("cache-control");
+        if (cacheControl != null) {
+            long maxAge = -1;
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                directive = directive.trim();
+                if (directive.equals("no-store") || directive.equals("no-cache") || directive.equals("private")) {
+                    return 0;
+                }
+                if (directive.startsWith("s-maxage=")) {
+                    maxAge = parseSeconds(directive.substring(9));
+                } else if (directive.startsWith("max-age=") && maxAge < 0) {
+                    maxAge = parseSeconds(directive.substring(8));
+                }
+            }
+            if (maxAge >= 0) {
+                return maxAge == 0 ? 0 : now + maxAge * 1000;
+            }
+        }
+        String expires = headers.get("expires");
+        if (expires != null) {
+            try {
+                long at = ZonedDateTime.parse(expires.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return at > now ? at : 0;
+            } catch (DateTimeParseException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks that every request header named by {@code Vary} is part of the key. {@code Accept-Encoding}
+     * is allowed as well, since bodies are stored decoded; {@code Vary: *} never matches.
+     */
+    static boolean varyCovered(String vary, List<String> keyHeaders) {
+        if (vary == null) {
+            return true;
+        }
+        for (String name : vary.split(",")) {
+            name = name.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty() && !name.equals("accept-encoding") && !keyHeaders.contains(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.trim().replace("\"", "")));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private synchronized Entry lookup(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            removeLocked(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void remove(String key) {
+        removeLocked(key);
+    }
+
+    /**
+     * Stores a response body and indexes it under the key.
+     */
+    void store(String key, int status, Map<String, String> responseHeaders, byte[] body, long expiresAt) {
+        if (body.length > maxSize) {
+            return;
+        }
+        String hash = sha256(body);
+        Path path = objectPath(hash);
+        try {
+            if (!Files.exists(path)) {
+                // Write to a temporary file first so readers never see a partial body
+                Files.createDirectories(path.getParent());
+                Path temp = Files.createTempFile(path.getParent(), hash, ".tmp");
+                Files.write(temp, body);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            return;
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, String> header : responseHeaders.entrySet()) {
+            if (!DROPPED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                headers.put(header.getKey(), header.getValue());
+            }
+        }
+
+        synchronized (this) {
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                release(previous);
+            }
+            Entry entry = new Entry(hash, body.length, status, headers, expiresAt);
+            putLocked(key, entry);
+            journal(record(key, entry));
+            stores.increment();
+            evictLocked();
+        }
+    }
+
+    private void putLocked(String key, Entry entry) {
+        entries.put(key, entry);
+        ObjectRef ref = objectRefs.get(entry.hash);
+        if (ref == null) {
+            objectRefs.put(entry.hash, new ObjectRef(entry.size));
+            size += entry.size;
+        } else {
+            ref.count++;
+        }
+    }
+
+    private void evictLocked() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            it.remove();
+            release(eldest.getValue());
+            journal(record(eldest.getKey(), null));
+            evictions.increment();
+        }
+    }
+
+    private void removeLocked(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            release(entry);
+            journal(record(key, null));
+        }
+    }
+
+    private void release(Entry entry) {
+        ObjectRef ref = objectRefs.get(entry.hash);
+        if (ref != null && --ref.count == 0) {
+            objectRefs.remove(entry.hash);
+            size -= ref.size;
+            try {
+                Files.deleteIfExists(objectPath(entry.hash));
+            } catch (IOException ignored) {
+                // Orphaned object, overwritten if the same content comes back
+            }
+        }
+    }
+
+    /**
+     * Reads a body, memory-mapping large files. Returns null if the object is gone.
+     */
+    byte[] read(String hash, long expectedSize) {
+        Path path = objectPath(hash);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length != expectedSize) {
+                return null;
+            }
+            byte[] body = new byte[(int) length];
+            if (length < MMAP_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.wrap(body);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading
+                }
+            } else {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                mapped.get(body);
+            }
+            return body;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Path objectPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash.substring(2));
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    private void load() throws IOException {
+        Map<String, IndexRecord> records = new LinkedHashMap<>();
+        Path index = directory.resolve(INDEX_FILE);
+        if (Files.exists(index)) {
+            try {
+                for (IndexRecord record : objectMapper.readValue(index.toFile(), new TypeReference<List<IndexRecord>>() {})) {
+                    records.put(record.key, record);
+                }
+            } catch (IOException e) {
+                // A damaged index only costs a cold cache
+            }
+        }
+        Path journalPath = directory.resolve(JOURNAL_FILE);
+        if (Files.exists(journalPath)) {
+            // Changes made after the index was written, in order
+            try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    IndexRecord record;
+                    try {
+                        record = objectMapper.readValue(line, IndexRecord.class);
+                    } catch (IOException e) {
+                        // Torn last line of a process that died mid-write
+                        break;
+                    }
+                    records.remove(record.key);
+                    if (!record.removed) {
+                        records.put(record.key, record);
+                    }
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (IndexRecord record : records.values()) {
+                if (record.expiresAt > now && Files.exists(objectPath(record.hash))) {
+                    putLocked(record.key, new Entry(record.hash, record.size, record.status, record.headers, record.expiresAt));
+                }
+            }
+            evictLocked();
+            removeOrphans();
+            // Compact, then start a fresh journal; replaying the old one over the new index is harmless
+            writeIndex();
+            journal = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * Deletes stored bodies that no entry refers to, left behind by a process that died between
+     * writing a body and journaling its entry, and unfinished temporary files.
+     */
+    private void removeOrphans() throws IOException {
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(objects)) {
+            for (Path prefix : prefixes) {
+                if (!Files.isDirectory(prefix)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(prefix)) {
+                    for (Path file : files) {
+                        String hash = prefix.getFileName().toString() + file.getFileName();
+                        if (!objectRefs.containsKey(hash)) {
+                            Files.deleteIfExists(file);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void journal(IndexRecord record) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.write(objectMapper.writeValueAsString(record));
+            journal.write('\n');
+            journal.flush();
+        } catch (IOException e) {
+            // The entry is still in memory and goes into the index on close
+        }
+    }
+
+    private static IndexRecord record(String key, Entry entry) {
+        IndexRecord record = new IndexRecord();
+        record.key = key;
+        if (entry == null) {
+            record.removed = true;
+        } else {
+            record.hash = entry.hash;
+            record.size = entry.size;
+            record.status = entry.status;
+            record.headers = entry.headers;
+            record.expiresAt = entry.expiresAt;
+        }
+        return record;
+    }
+
+    private void writeIndex() throws IOException {
+        List<IndexRecord> records = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                records.add(record(e.getKey(), e.getValue()));
+            }
+        }
+        Path temp = Files.createTempFile(directory, "index", ".tmp");
+        objectMapper.writeValue(temp.toFile(), records);
+        Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Compacts the journal into the index so the next process starts from a single file.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            writeIndex();
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            Files.deleteIfExists(directory.resolve(JOURNAL_FILE));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write asset cache index", e);
+        }
+    }
+
+    /**
+     * Removes every entry and stored body.
+     */
+    public synchronized void clear() {
+        for (String key : new ArrayList<>(entries.keySet())) {
+            removeLocked(key);
+        }
+    }
+
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getStoreCount() { return stores.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+    public synchronized int getEntryCount() { return entries.size(); }
+
+    /** Total size of the stored bodies in bytes, counting shared bodies once. */
+    public synchronized long getSize() { return size; }
+
+    public long getMaxSize() { return maxSize; }
+
+    private static final class Entry {
+        final String hash;
+        final long size;
+        final int status;
+        final Map<String, String> headers;
+        final long expiresAt;
+
+        Entry(String hash, long size, int status, Map<String, String> headers, long expiresAt) {
+            this.hash = hash;
+            this.size = size;
+            this.status = status;
+            this.headers = headers;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class ObjectRef {
+        final long size;
+        int count = 1;
+
+        ObjectRef(long size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * Serialized form of an entry in the index file.
+     */
+    static final class IndexRecord {
+        public String key;
+        public String hash;
+        public long size;
+        public int status;
+        public Map<String, String> headers;
+        public long expiresAt;
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+        public boolean removed;
+    }
+
+    /**
+     * Builder for {@link StealthAssetCache}.
+     */
+    public static class Builder {
+        private final Path directory;
+        private long maxSize = 512L * 1024 * 1024;
+        private List<String> resourceTypes = Arrays.asList("script", "stylesheet", "font", "image");
+        private List<String> keyHeaders = Arrays.asList("accept");
+
+        private Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory cannot be null");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * Sets the maximum total size of stored bodies in bytes. Defaults to 512 MB.
+         */
+        public Builder maxSize(long maxSize) {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("Max size must be positive");
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets the resource types to cache. Defaults to script, stylesheet, font and image.
+         */
+        public Builder resourceTypes(String... resourceTypes) {
+            this.resourceTypes = Arrays.asList(resourceTypes);
+            return this;
+        }
+
+        /**
+         * Sets the request headers, in lower case, that are part of the cache key. Defaults to {@code accept}.
+         */
+        public Builder keyHeaders(String... keyHeaders) {
+            this.keyHeaders = Arrays.asList(keyHeaders);
+            return this;
+        }
+
+        public StealthAssetCache build() {
+            try {
+                return new StealthAssetCache(this);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open asset cache in " + directory, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.playwright.stealth;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assembles the options, utilities and evasion scripts into a single init script.
+ * The whole bundle runs inside one function scope, and every evasion runs in its own
+ * block so a failing evasion cannot stop the ones after it, just like separate scripts.
+ * The scripts leave no marker in the page; {@link Stealth} keeps them from being registered
+ * twice for the same window.
+ */
+final class StealthBundler {
+
+    private StealthBundler() {}
+
+    /**
+     * Builds the list of separately registered scripts. Each evasion runs in its own block,
+     * which keeps its constants out of the page's global scope.
+     *
+     * @param optsScript The {@code const opts = ...} declaration, or null if no evasion reads it
+     * @param utils The utilities script
+     * @param magicArrays The magic arrays script
+     * @param evasions Evasion scripts keyed by evasion name, in injection order
+     * @return Scripts in registration order
+     */
+    static List<String> scripts(String optsScript, String utils, String magicArrays, Map<String, String> evasions) {
+        List<String> scripts = new ArrayList<>(evasions.size() + 3);
+        if (optsScript != null) {
+            scripts.add(optsScript);
+        }
+        scripts.add(utils);
+        scripts.add(magicArrays);
+        for (String script : evasions.values()) {
+            scripts.add("{\n" + script + "\n}");
+        }
+        return scripts;
+    }
+
+    /**
+     * Builds the bundled script.
+     *
+     * @param optsScript The {@code const opts = ...} declaration
+     * @param evasions Evasion scripts keyed by evasion name, in injection order
+     * @return A single self-invoking JavaScript function
+     */
+    static String bundle(String optsScript, Map<String, String> evasions) {
+        return bundle(optsScript, StealthScripts.UTILS, StealthScripts.GENERATE_MAGIC_ARRAYS, evasions);
+    }
+
+    /**
+     * Builds the bundled script from the given utility scripts.
+     *
+     * @param optsScript The {@code const opts = ...} declaration, or null if no evasion reads it
+     * @param utils The utilities script
+     * @param magicArrays The magic arrays script
+     * @param evasions Evasion scripts keyed by evasion name, in injection order
+     * @return A single self-invoking JavaScript function
+     */
+    static String bundle(String optsScript, String utils, String magicArrays, Map<String, String> evasions) {
+        int size = (optsScript == null ? 0 : optsScript.length()) + utils.length() + magicArrays.length() + 64;
+        for (String script : evasions.values()) {
+            size += script.length() + 48;
+        }
+
+        StringBuilder sb = new StringBuilder(size);
+        sb.append("(() => {\n");
+        if (optsScript != null) {
+            sb.append(optsScript).append(";\n");
+        }
+        sb.append(utils).append('\n');
+        sb.append(magicArrays).append('\n');
+        for (Map.Entry<String, String> evasion : evasions.entrySet()) {
+            sb.append("// ").append(evasion.getKey()).append('\n');
+            sb.append("try {\n").append(evasion.getValue()).append("\n} catch (err) {}\n");
+        }
+        sb.append("})();\n");
+        return sb.toString();
+    }
+
+    /**
+     * Builds a bundle that times the utilities and every evasion with {@code performance.now()}
+     * and the JS heap size, then passes the samples to the named binding as
+     * {@code [[name, millis, heapDelta, failed], ...]}. Each evasion runs in its own arrow function
+     * instead of a bare block so it can be timed, which scopes its declarations the same way.
+     *
+     * @param optsScript The {@code const opts = ...} declaration
+     * @param evasions Evasion scripts keyed by evasion name, in injection order
+     * @param binding Name of the exposed binding that receives the samples
+     * @return A single self-invoking JavaScript function
+     */
+    static String profiledBundle(String optsScript, Map<String, String> evasions, String binding) {
+        int size = optsScript.length() + StealthScripts.UTILS.length() + StealthScripts.GENERATE_MAGIC_ARRAYS.length() + 1024;
+        for (String script : evasions.values()) {
+            size += script.length() + 64;
+        }
+
+        StringBuilder sb = new StringBuilder(size);
+        sb.append("(() => {\n");
+        sb.append("const __stealthSamples = [];\n");
+        sb.append("const __stealthHeap = () => performance.memory ? performance.memory.usedJSHeapSize : 0;\n");
+        sb.append("const __stealthRun = (name, fn) => {\n");
+        sb.append("    const heap = __stealthHeap();\n");
+        sb.append("    const start = performance.now();\n");
+        sb.append("    let failed = false;\n");
+        sb.append("    try { fn() } catch (err) { failed = true }\n");
+        sb.append("    __stealthSamples.push([name, performance.now() - start, __stealthHeap() - heap, failed]);\n");
+        sb.append("};\n");
+        sb.append(optsScript).append(";\n");
+        sb.append("const __stealthUtilsHeap = __stealthHeap();\n");
+        sb.append("const __stealthUtilsStart = performance.now();\n");
+        sb.append(StealthScripts.UTILS).append('\n');
+        sb.append(StealthScripts.GENERATE_MAGIC_ARRAYS).append('\n');
+        sb.append("__stealthSamples.push(['utils', performance.now() - __stealthUtilsStart, __stealthHeap() - __stealthUtilsHeap, false]);\n");
+        for (Map.Entry<String, String> evasion : evasions.entrySet()) {
+            sb.append("__stealthRun('").append(evasion.getKey()).append("', () => {\n");
+            sb.append(evasion.getValue()).append("\n});\n");
+        }
+        // Bindings are installed by their own init script, which may not have run yet in this frame
+        sb.append("const __stealthReport = () => window['").append(binding).append("'](__stealthSamples);\n");
+        sb.append("typeof window['").append(binding).append("'] === 'function' ? __stealthReport() : setTimeout(__stealthReport, 0);\n");
+        sb.append("})();\n");
+        return sb.toString();
+    }
+}
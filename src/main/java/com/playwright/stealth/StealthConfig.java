@@ -1,14 +1,24 @@
 package com.playwright.stealth;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Configuration class for Playwright stealth functionality.
  * Contains all the stealth strategies and their configuration options.
+ * 
+ * <p>A configuration is either mutable or frozen. Frozen configurations, such as every
+ * {@link StealthSnapshot}, cannot change after creation and every setter throws
+ * {@link UnsupportedOperationException}; check {@link #isFrozen()} or take a mutable copy with
+ * {@link #StealthConfig(StealthConfig)} before changing a configuration you did not create.</p>
  */
 public class StealthConfig {
     
@@ -40,90 +50,364 @@ public class StealthConfig {
     private List<String> languages = Arrays.asList("en-US", "en");
     private Boolean runOnInsecureOrigins = null;
     
+    // Injection options
+    private boolean bundleScripts = false;
+    private boolean minifyScripts = false;
+    private StealthTransport transport = StealthTransport.INIT_SCRIPT;
+    // Header and client hint consistency only; the JavaScript patches are kept alongside it
+    private boolean nativeEmulation = false;
+    private boolean proxyFree = false;
+    private boolean lazyEvasions = false;
+    
+    private final boolean frozen;
+    
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
-    public StealthConfig() {}
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    public StealthConfig() {
+        this.frozen = false;
+    }
+    
+    /**
+     * Creates a mutable copy of another configuration.
+     * @param other Configuration to copy
+     */
+    public StealthConfig(StealthConfig other) {
+        this(other, false);
+    }
+    
+    /**
+     * Creates a copy of another configuration, optionally frozen with an unmodifiable language list.
+     */
+    StealthConfig(StealthConfig other, boolean frozen) {
+        this.webdriver = other.isWebdriver();
+        this.webglVendor = other.isWebglVendor();
+        this.chromeApp = other.isChromeApp();
+        this.chromeCsi = other.isChromeCsi();
+        this.chromeLoadTimes = other.isChromeLoadTimes();
+        this.chromeRuntime = other.isChromeRuntime();
+        this.iframeContentWindow = other.isIframeContentWindow();
+        this.mediaCodecs = other.isMediaCodecs();
+        this.navigatorHardwareConcurrency = other.getNavigatorHardwareConcurrency();
+        this.navigatorLanguages = other.isNavigatorLanguages();
+        this.navigatorPermissions = other.isNavigatorPermissions();
+        this.navigatorPlatform = other.isNavigatorPlatform();
+        this.navigatorPlugins = other.isNavigatorPlugins();
+        this.navigatorUserAgent = other.isNavigatorUserAgent();
+        this.navigatorVendor = other.isNavigatorVendor();
+        this.outerDimensions = other.isOuterDimensions();
+        this.hairline = other.isHairline();
+        this.vendor = other.getVendor();
+        this.renderer = other.getRenderer();
+        this.navVendor = other.getNavVendor();
+        this.navUserAgent = other.getNavUserAgent();
+        this.navPlatform = other.getNavPlatform();
+        List<String> languages = other.getLanguages() == null ? null : new ArrayList<>(other.getLanguages());
+        this.languages = frozen && languages != null ? Collections.unmodifiableList(languages) : languages;
+        this.runOnInsecureOrigins = other.getRunOnInsecureOrigins();
+        this.bundleScripts = other.isBundleScripts();
+        this.minifyScripts = other.isMinifyScripts();
+        this.transport = other.getTransport();
+        this.nativeEmulation = other.isNativeEmulation();
+        this.proxyFree = other.isProxyFree();
+        this.lazyEvasions = other.isLazyEvasions();
+        this.frozen = frozen;
+    }
+    
+    /**
+     * Returns whether this configuration is frozen, in which case every setter throws.
+     * @return true for snapshots
+     */
+    @JsonIgnore
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Configuration is frozen, copy it with new StealthConfig(config)");
+        }
+    }
     
     // Getters and setters
     public boolean isWebdriver() { return webdriver; }
-    public void setWebdriver(boolean webdriver) { this.webdriver = webdriver; }
+    public void setWebdriver(boolean webdriver) { checkMutable(); this.webdriver = webdriver; }
     
     public boolean isWebglVendor() { return webglVendor; }
-    public void setWebglVendor(boolean webglVendor) { this.webglVendor = webglVendor; }
+    public void setWebglVendor(boolean webglVendor) { checkMutable(); this.webglVendor = webglVendor; }
     
     public boolean isChromeApp() { return chromeApp; }
-    public void setChromeApp(boolean chromeApp) { this.chromeApp = chromeApp; }
+    public void setChromeApp(boolean chromeApp) { checkMutable(); this.chromeApp = chromeApp; }
     
     public boolean isChromeCsi() { return chromeCsi; }
-    public void setChromeCsi(boolean chromeCsi) { this.chromeCsi = chromeCsi; }
+    public void setChromeCsi(boolean chromeCsi) { checkMutable(); this.chromeCsi = chromeCsi; }
     
     public boolean isChromeLoadTimes() { return chromeLoadTimes; }
-    public void setChromeLoadTimes(boolean chromeLoadTimes) { this.chromeLoadTimes = chromeLoadTimes; }
+    public void setChromeLoadTimes(boolean chromeLoadTimes) { checkMutable(); this.chromeLoadTimes = chromeLoadTimes; }
     
     public boolean isChromeRuntime() { return chromeRuntime; }
-    public void setChromeRuntime(boolean chromeRuntime) { this.chromeRuntime = chromeRuntime; }
+    public void setChromeRuntime(boolean chromeRuntime) { checkMutable(); this.chromeRuntime = chromeRuntime; }
     
     public boolean isIframeContentWindow() { return iframeContentWindow; }
-    public void setIframeContentWindow(boolean iframeContentWindow) { this.iframeContentWindow = iframeContentWindow; }
+    public void setIframeContentWindow(boolean iframeContentWindow) { checkMutable(); this.iframeContentWindow = iframeContentWindow; }
     
     public boolean isMediaCodecs() { return mediaCodecs; }
-    public void setMediaCodecs(boolean mediaCodecs) { this.mediaCodecs = mediaCodecs; }
+    public void setMediaCodecs(boolean mediaCodecs) { checkMutable(); this.mediaCodecs = mediaCodecs; }
     
     public int getNavigatorHardwareConcurrency() { return navigatorHardwareConcurrency; }
-    public void setNavigatorHardwareConcurrency(int navigatorHardwareConcurrency) { this.navigatorHardwareConcurrency = navigatorHardwareConcurrency; }
+    public void setNavigatorHardwareConcurrency(int navigatorHardwareConcurrency) { checkMutable(); this.navigatorHardwareConcurrency = navigatorHardwareConcurrency; }
     
     public boolean isNavigatorLanguages() { return navigatorLanguages; }
-    public void setNavigatorLanguages(boolean navigatorLanguages) { this.navigatorLanguages = navigatorLanguages; }
+    public void setNavigatorLanguages(boolean navigatorLanguages) { checkMutable(); this.navigatorLanguages = navigatorLanguages; }
     
     public boolean isNavigatorPermissions() { return navigatorPermissions; }
-    public void setNavigatorPermissions(boolean navigatorPermissions) { this.navigatorPermissions = navigatorPermissions; }
+    public void setNavigatorPermissions(boolean navigatorPermissions) { checkMutable(); this.navigatorPermissions = navigatorPermissions; }
     
     public boolean isNavigatorPlatform() { return navigatorPlatform; }
-    public void setNavigatorPlatform(boolean navigatorPlatform) { this.navigatorPlatform = navigatorPlatform; }
+    public void setNavigatorPlatform(boolean navigatorPlatform) { checkMutable(); this.navigatorPlatform = navigatorPlatform; }
     
     public boolean isNavigatorPlugins() { return navigatorPlugins; }
-    public void setNavigatorPlugins(boolean navigatorPlugins) { this.navigatorPlugins = navigatorPlugins; }
+    public void setNavigatorPlugins(boolean navigatorPlugins) { checkMutable(); this.navigatorPlugins = navigatorPlugins; }
     
     public boolean isNavigatorUserAgent() { return navigatorUserAgent; }
-    public void setNavigatorUserAgent(boolean navigatorUserAgent) { this.navigatorUserAgent = navigatorUserAgent; }
+    public void setNavigatorUserAgent(boolean navigatorUserAgent) { checkMutable(); this.navigatorUserAgent = navigatorUserAgent; }
     
     public boolean isNavigatorVendor() { return navigatorVendor; }
-    public void setNavigatorVendor(boolean navigatorVendor) { this.navigatorVendor = navigatorVendor; }
+    public void setNavigatorVendor(boolean navigatorVendor) { checkMutable(); this.navigatorVendor = navigatorVendor; }
     
     public boolean isOuterDimensions() { return outerDimensions; }
-    public void setOuterDimensions(boolean outerDimensions) { this.outerDimensions = outerDimensions; }
+    public void setOuterDimensions(boolean outerDimensions) { checkMutable(); this.outerDimensions = outerDimensions; }
     
     public boolean isHairline() { return hairline; }
-    public void setHairline(boolean hairline) { this.hairline = hairline; }
+    public void setHairline(boolean hairline) { checkMutable(); this.hairline = hairline; }
     
     public String getVendor() { return vendor; }
-    public void setVendor(String vendor) { this.vendor = vendor; }
+    public void setVendor(String vendor) { checkMutable(); this.vendor = vendor; }
     
     public String getRenderer() { return renderer; }
-    public void setRenderer(String renderer) { this.renderer = renderer; }
+    public void setRenderer(String renderer) { checkMutable(); this.renderer = renderer; }
     
     public String getNavVendor() { return navVendor; }
-    public void setNavVendor(String navVendor) { this.navVendor = navVendor; }
+    public void setNavVendor(String navVendor) { checkMutable(); this.navVendor = navVendor; }
     
     public String getNavUserAgent() { return navUserAgent; }
-    public void setNavUserAgent(String navUserAgent) { this.navUserAgent = navUserAgent; }
+    public void setNavUserAgent(String navUserAgent) { checkMutable(); this.navUserAgent = navUserAgent; }
     
     public String getNavPlatform() { return navPlatform; }
-    public void setNavPlatform(String navPlatform) { this.navPlatform = navPlatform; }
+    public void setNavPlatform(String navPlatform) { checkMutable(); this.navPlatform = navPlatform; }
     
     public List<String> getLanguages() { return languages; }
-    public void setLanguages(List<String> languages) { this.languages = languages; }
+    public void setLanguages(List<String> languages) { checkMutable(); this.languages = languages; }
     
     public Boolean getRunOnInsecureOrigins() { return runOnInsecureOrigins; }
-    public void setRunOnInsecureOrigins(Boolean runOnInsecureOrigins) { this.runOnInsecureOrigins = runOnInsecureOrigins; }
+    public void setRunOnInsecureOrigins(Boolean runOnInsecureOrigins) { checkMutable(); this.runOnInsecureOrigins = runOnInsecureOrigins; }
+    
+    public boolean isBundleScripts() { return bundleScripts; }
+    public void setBundleScripts(boolean bundleScripts) { checkMutable(); this.bundleScripts = bundleScripts; }
+    
+    public boolean isMinifyScripts() { return minifyScripts; }
+    public void setMinifyScripts(boolean minifyScripts) { checkMutable(); this.minifyScripts = minifyScripts; }
+    
+    public StealthTransport getTransport() { return transport; }
+    public void setTransport(StealthTransport transport) { checkMutable(); this.transport = transport; }
+    
+    public boolean isNativeEmulation() { return nativeEmulation; }
+    public void setNativeEmulation(boolean nativeEmulation) { checkMutable(); this.nativeEmulation = nativeEmulation; }
+    
+    public boolean isProxyFree() { return proxyFree; }
+    public void setProxyFree(boolean proxyFree) { checkMutable(); this.proxyFree = proxyFree; }
+    
+    public boolean isLazyEvasions() { return lazyEvasions; }
+    public void setLazyEvasions(boolean lazyEvasions) { checkMutable(); this.lazyEvasions = lazyEvasions; }
     
     /**
      * Generates the list of enabled JavaScript scripts to be injected into the page.
      * @return List of JavaScript code strings
      */
+    @JsonIgnore
     public List<String> getEnabledScripts() {
-        List<String> scripts = new ArrayList<>();
+        if (minifyScripts) {
+            return new ArrayList<>(StealthScriptCompiler.compile(this).getScripts());
+        }
         
+        // Options and utilities first, then the enabled evasions
+        return StealthBundler.scripts("const opts = " + buildOptsJson(), StealthScripts.UTILS,
+            StealthScripts.GENERATE_MAGIC_ARRAYS, getEnabledEvasions());
+    }
+    
+    /**
+     * Generates a single script containing the options, the utilities and all enabled
+     * evasions, scoped in one function so nothing leaks into the page's global scope.
+     * @return JavaScript code string that can be registered with one addInitScript call
+     */
+    @JsonIgnore
+    public String getBundledScript() {
+        if (minifyScripts) {
+            return StealthScriptCompiler.compile(this).getBundle();
+        }
+        return StealthBundler.bundle("const opts = " + buildOptsJson(), getEnabledEvasions());
+    }
+    
+    /**
+     * Computes a stable 64-bit FNV-1a hash of every flag and value that affects the
+     * generated scripts. Equal configurations always produce the same fingerprint, so it
+     * serves as {@link #hashCode()}; distinct configurations can collide, so it is not an
+     * identity on its own.
+     * @return Fingerprint of this configuration
+     */
+    public long fingerprint() {
+        long h = FNV_OFFSET_BASIS;
+        h = hash(h, webdriver);
+        h = hash(h, webglVendor);
+        h = hash(h, chromeApp);
+        h = hash(h, chromeCsi);
+        h = hash(h, chromeLoadTimes);
+        h = hash(h, chromeRuntime);
+        h = hash(h, iframeContentWindow);
+        h = hash(h, mediaCodecs);
+        h = hash(h, navigatorHardwareConcurrency);
+        h = hash(h, navigatorLanguages);
+        h = hash(h, navigatorPermissions);
+        h = hash(h, navigatorPlatform);
+        h = hash(h, navigatorPlugins);
+        h = hash(h, navigatorUserAgent);
+        h = hash(h, navigatorVendor);
+        h = hash(h, outerDimensions);
+        h = hash(h, hairline);
+        h = hash(h, vendor);
+        h = hash(h, renderer);
+        h = hash(h, navVendor);
+        h = hash(h, navUserAgent);
+        h = hash(h, navPlatform);
+        if (languages == null) {
+            h = hash(h, -1);
+        } else {
+            int size = languages.size();
+            h = hash(h, size);
+            for (int i = 0; i < size; i++) {
+                h = hash(h, languages.get(i));
+            }
+        }
+        h = hash(h, runOnInsecureOrigins == null ? -1 : (runOnInsecureOrigins ? 1 : 0));
+        h = hash(h, bundleScripts);
+        h = hash(h, minifyScripts);
+        h = hash(h, transport == null ? -1 : transport.ordinal());
+        h = hash(h, nativeEmulation);
+        h = hash(h, proxyFree);
+        h = hash(h, lazyEvasions);
+        return h;
+    }
+    
+    /**
+     * Compares every flag and value that affects the generated scripts, so a configuration equals
+     * its snapshots. Like other mutable collections of values, a configuration must not be changed
+     * while it is used as a map key.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StealthConfig)) {
+            return false;
+        }
+        StealthConfig other = (StealthConfig) o;
+        return webdriver == other.webdriver && webglVendor == other.webglVendor &&
+            chromeApp == other.chromeApp && chromeCsi == other.chromeCsi &&
+            chromeLoadTimes == other.chromeLoadTimes && chromeRuntime == other.chromeRuntime &&
+            iframeContentWindow == other.iframeContentWindow && mediaCodecs == other.mediaCodecs &&
+            navigatorHardwareConcurrency == other.navigatorHardwareConcurrency &&
+            navigatorLanguages == other.navigatorLanguages &&
+            navigatorPermissions == other.navigatorPermissions &&
+            navigatorPlatform == other.navigatorPlatform && navigatorPlugins == other.navigatorPlugins &&
+            navigatorUserAgent == other.navigatorUserAgent && navigatorVendor == other.navigatorVendor &&
+            outerDimensions == other.outerDimensions && hairline == other.hairline &&
+            bundleScripts == other.bundleScripts && minifyScripts == other.minifyScripts &&
+            nativeEmulation == other.nativeEmulation && proxyFree == other.proxyFree &&
+            lazyEvasions == other.lazyEvasions && Objects.equals(vendor, other.vendor) &&
+            Objects.equals(renderer, other.renderer) && Objects.equals(navVendor, other.navVendor) &&
+            Objects.equals(navUserAgent, other.navUserAgent) &&
+            Objects.equals(navPlatform, other.navPlatform) && Objects.equals(languages, other.languages) &&
+            Objects.equals(runOnInsecureOrigins, other.runOnInsecureOrigins) &&
+            Objects.equals(transport, other.transport);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint());
+    }
+    
+    private static long hash(long h, boolean value) {
+        return hash(h, value ? 1 : 0);
+    }
+    
+    private static long hash(long h, int value) {
+        for (int i = 0; i < 4; i++) {
+            h ^= (value >>> (i * 8)) & 0xff;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+    
+    private static long hash(long h, String value) {
+        if (value == null) {
+            return hash(h, -1);
+        }
+        int length = value.length();
+        h = hash(h, length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            h ^= c & 0xff;
+            h *= FNV_PRIME;
+            h ^= c >>> 8;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+    
+    /**
+     * Returns the enabled evasion scripts keyed by evasion name, in injection order.
+     * @return Map of evasion name to JavaScript code
+     */
+    Map<String, String> getEnabledEvasions() {
+        Map<String, String> evasions = new LinkedHashMap<>();
+        if (proxyFree) evasions.put("utils.toString", StealthScripts.NATIVE_TO_STRING);
+        if (lazyEvasions) evasions.put("utils.lazy", StealthScripts.LAZY_PROPERTIES);
+        if (chromeApp) evasions.put("chrome.app", lazyEvasions ? StealthScripts.CHROME_APP_LAZY : StealthScripts.CHROME_APP);
+        if (chromeCsi) evasions.put("chrome.csi", StealthScripts.CHROME_CSI);
+        if (hairline) evasions.put("chrome.hairline", StealthScripts.CHROME_HAIRLINE);
+        if (chromeLoadTimes) evasions.put("chrome.loadTimes", StealthScripts.CHROME_LOAD_TIMES);
+        if (chromeRuntime) evasions.put("chrome.runtime", lazyEvasions ? StealthScripts.CHROME_RUNTIME_LAZY : StealthScripts.CHROME_RUNTIME);
+        // The attachShadow proxy only forwards calls, so proxy-free mode leaves the native in place
+        if (iframeContentWindow && !proxyFree) evasions.put("iframe.contentWindow", StealthScripts.IFRAME_CONTENT_WINDOW);
+        if (mediaCodecs) evasions.put("media.codecs", proxyFree ? StealthScripts.MEDIA_CODECS_PROXY_FREE : StealthScripts.MEDIA_CODECS);
+        if (navigatorLanguages) evasions.put("navigator.languages", StealthScripts.NAVIGATOR_LANGUAGES);
+        if (navigatorPermissions) evasions.put("navigator.permissions", proxyFree ? StealthScripts.NAVIGATOR_PERMISSIONS_PROXY_FREE : StealthScripts.NAVIGATOR_PERMISSIONS);
+        if (navigatorPlatform) evasions.put("navigator.platform", StealthScripts.NAVIGATOR_PLATFORM);
+        if (navigatorPlugins) evasions.put("navigator.plugins", lazyEvasions ? StealthScripts.NAVIGATOR_PLUGINS_LAZY : StealthScripts.NAVIGATOR_PLUGINS);
+        if (navigatorUserAgent) evasions.put("navigator.userAgent", StealthScripts.NAVIGATOR_USER_AGENT);
+        if (navigatorVendor) evasions.put("navigator.vendor", StealthScripts.NAVIGATOR_VENDOR);
+        if (webdriver) evasions.put("navigator.webdriver", proxyFree ? StealthScripts.WEBDRIVER_PROXY_FREE : StealthScripts.WEBDRIVER);
+        if (outerDimensions) evasions.put("window.outerdimensions", StealthScripts.OUTER_DIMENSIONS);
+        if (webglVendor) evasions.put("webgl.vendor", proxyFree ? StealthScripts.WEBGL_VENDOR_PROXY_FREE : StealthScripts.WEBGL_VENDOR);
+        return evasions;
+    }
+    
+    /**
+     * Creates an immutable snapshot of this configuration with all script output precomputed.
+     * Later changes to this configuration do not affect the snapshot.
+     * @return Frozen copy of this configuration
+     */
+    public StealthSnapshot snapshot() {
+        return StealthSnapshot.of(this);
+    }
+    
+    /**
+     * Serializes the configuration values into the {@code opts} object the scripts read from.
+     */
+    String buildOptsJson() {
         // Create options object for JavaScript
         StealthOptions opts = new StealthOptions();
         opts.webglVendor = this.vendor;
@@ -135,35 +419,10 @@ public class StealthConfig {
         opts.runOnInsecureOrigins = this.runOnInsecureOrigins;
         
         try {
-            String optsJson = objectMapper.writeValueAsString(opts);
-            scripts.add("const opts = " + optsJson);
+            return objectMapper.writeValueAsString(opts);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize stealth options", e);
         }
-        
-        // Add utility scripts first
-        scripts.add(StealthScripts.UTILS);
-        scripts.add(StealthScripts.GENERATE_MAGIC_ARRAYS);
-        
-        // Add enabled scripts
-        if (chromeApp) scripts.add(StealthScripts.CHROME_APP);
-        if (chromeCsi) scripts.add(StealthScripts.CHROME_CSI);
-        if (hairline) scripts.add(StealthScripts.CHROME_HAIRLINE);
-        if (chromeLoadTimes) scripts.add(StealthScripts.CHROME_LOAD_TIMES);
-        if (chromeRuntime) scripts.add(StealthScripts.CHROME_RUNTIME);
-        if (iframeContentWindow) scripts.add(StealthScripts.IFRAME_CONTENT_WINDOW);
-        if (mediaCodecs) scripts.add(StealthScripts.MEDIA_CODECS);
-        if (navigatorLanguages) scripts.add(StealthScripts.NAVIGATOR_LANGUAGES);
-        if (navigatorPermissions) scripts.add(StealthScripts.NAVIGATOR_PERMISSIONS);
-        if (navigatorPlatform) scripts.add(StealthScripts.NAVIGATOR_PLATFORM);
-        if (navigatorPlugins) scripts.add(StealthScripts.NAVIGATOR_PLUGINS);
-        if (navigatorUserAgent) scripts.add(StealthScripts.NAVIGATOR_USER_AGENT);
-        if (navigatorVendor) scripts.add(StealthScripts.NAVIGATOR_VENDOR);
-        if (webdriver) scripts.add(StealthScripts.WEBDRIVER);
-        if (outerDimensions) scripts.add(StealthScripts.OUTER_DIMENSIONS);
-        if (webglVendor) scripts.add(StealthScripts.WEBGL_VENDOR);
-        
-        return scripts;
     }
     
     /**
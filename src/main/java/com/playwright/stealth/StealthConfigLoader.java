@@ -0,0 +1,385 @@
+package com.playwright.stealth;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads large multi-profile JSON files one entry at a time with Jackson's streaming parser.
+ * Only the entry being read is in memory, and repeated strings such as user agents, vendors,
+ * renderers and language lists are interned, so thousands of profiles sharing a few hundred
+ * distinct values do not hold thousands of copies of them.
+ *
+ * <p>The file is either a JSON array of entries or an object whose {@code profiles} field is one.
+ * Entries use {@link StealthConfig} property names, as written by Jackson, or
+ * {@link FingerprintProfile} names ({@code userAgent}, {@code platform}, {@code webglVendor},
+ * {@code webglRenderer}, {@code hardwareConcurrency}, {@code screenWidth}, {@code screenHeight}).
+ * Unknown fields are skipped.</p>
+ *
+ * <pre>{@code
+ * try (StealthConfigLoader loader = StealthConfigLoader.open(path)) {
+ *     loader.skip(workerId * 100);
+ *     List<StealthSnapshot> mine = loader.snapshots().limit(100).collect(Collectors.toList());
+ * }
+ *
+ * // Convert to a memory-mapped store without materializing the file
+ * StealthConfigLoader.toProfileStore(jsonPath, storePath);
+ * }</pre>
+ */
+public final class StealthConfigLoader implements Closeable {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final JsonParser parser;
+    private final StealthConfig base;
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<List<String>, List<String>> languageLists = new HashMap<>();
+
+    private boolean ready;
+    private boolean finished;
+    private int screenWidth;
+    private int screenHeight;
+
+    private StealthConfigLoader(JsonParser parser, StealthConfig base) throws IOException {
+        this.parser = parser;
+        this.base = base;
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            // Find the profiles array, skipping everything else
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                if ("profiles".equals(name) && token == JsonToken.START_ARRAY) {
+                    return;
+                }
+                parser.skipChildren();
+            }
+            finished = true;
+        } else if (token != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array or an object with a profiles array");
+        }
+    }
+
+    /**
+     * Opens a profile file. Entries start from the default configuration.
+     *
+     * @param path JSON file
+     * @return Loader positioned before the first entry
+     * @throws IOException if the file cannot be opened or does not start with an array or object
+     */
+    public static StealthConfigLoader open(Path path) throws IOException {
+        return open(path, null);
+    }
+
+    /**
+     * Opens a profile file. Entries start from a copy of the base configuration.
+     *
+     * @param path JSON file
+     * @param base Configuration providing values the entries leave out, or null for the defaults
+     * @return Loader positioned before the first entry
+     * @throws IOException if the file cannot be opened or does not start with an array or object
+     */
+    public static StealthConfigLoader open(Path path, StealthConfig base) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        return open(Files.newInputStream(path), base);
+    }
+
+    /**
+     * Reads profiles from a stream, which is closed together with the loader.
+     *
+     * @param in JSON input
+     * @param base Configuration providing values the entries leave out, or null for the defaults
+     * @return Loader positioned before the first entry
+     * @throws IOException if the input does not start with an array or object
+     */
+    public static StealthConfigLoader open(InputStream in, StealthConfig base) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        JsonParser parser = jsonFactory.createParser(in);
+        try {
+            return new StealthConfigLoader(parser, base == null ? null : new StealthConfig(base));
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Streams a profile file into a {@link StealthProfileStore} file.
+     *
+     * @param json JSON file
+     * @param store Target store file
+     * @return Number of profiles written
+     * @throws IOException if either file cannot be accessed
+     */
+    public static int toProfileStore(Path json, Path store) throws IOException {
+        try (StealthConfigLoader loader = open(json)) {
+            return StealthProfileStore.write(store, loader::profileIterator);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return true if another entry follows
+     * @throws IOException if the file is malformed
+     */
+    public boolean hasNext() throws IOException {
+        if (ready) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            ready = true;
+            return true;
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new IOException("Expected a profile object at " + parser.getCurrentLocation());
+        }
+        finished = true;
+        return false;
+    }
+
+    /**
+     * Skips entries without building them.
+     *
+     * @param count Number of entries to skip
+     * @return Number of entries actually skipped, less than count at the end of the file
+     * @throws IOException if the file is malformed
+     */
+    public int skip(int count) throws IOException {
+        int skipped = 0;
+        while (skipped < count && hasNext()) {
+            parser.skipChildren();
+            ready = false;
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Reads the next entry as a mutable configuration. Its language list is interned and unmodifiable.
+     *
+     * @return Configuration
+     * @throws IOException if the file is malformed
+     */
+    public StealthConfig nextConfig() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        screenWidth = 0;
+        screenHeight = 0;
+        StealthConfig config = base == null ? new StealthConfig() : new StealthConfig(base);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                setNull(config, name);
+            } else if (!set(config, name, value)) {
+                parser.skipChildren();
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Reads the next entry as an immutable snapshot.
+     *
+     * @return Snapshot
+     * @throws IOException if the file is malformed
+     */
+    public StealthSnapshot nextSnapshot() throws IOException {
+        return nextConfig().snapshot();
+    }
+
+    /**
+     * Reads the next entry as a fingerprint profile.
+     *
+     * @return Profile
+     * @throws IOException if the file is malformed
+     */
+    public FingerprintProfile nextProfile() throws IOException {
+        StealthConfig config = nextConfig();
+        List<String> languages = config.getLanguages() == null ? Collections.emptyList() : config.getLanguages();
+        return new FingerprintProfile(config.getNavUserAgent(), config.getNavPlatform(), config.getVendor(),
+            config.getRenderer(), languages, config.getNavigatorHardwareConcurrency(), screenWidth, screenHeight);
+    }
+
+    /**
+     * Returns the remaining entries as a lazy stream of snapshots. I/O errors surface as
+     * {@link UncheckedIOException}.
+     */
+    public Stream<StealthSnapshot> snapshots() {
+        return stream(this::nextSnapshot);
+    }
+
+    /**
+     * Returns the remaining entries as a lazy stream of profiles. I/O errors surface as
+     * {@link UncheckedIOException}.
+     */
+    public Stream<FingerprintProfile> profiles() {
+        return stream(this::nextProfile);
+    }
+
+    private Iterator<FingerprintProfile> profileIterator() {
+        return iterator(this::nextProfile);
+    }
+
+    private <T> Stream<T> stream(Reader<T> reader) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(reader),
+            Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private <T> Iterator<T> iterator(Reader<T> reader) {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return StealthConfigLoader.this.hasNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return reader.read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private interface Reader<T> {
+        T read() throws IOException;
+    }
+
+    /**
+     * @return Number of distinct strings interned so far
+     */
+    public int getInternedCount() {
+        return strings.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private boolean set(StealthConfig config, String name, JsonToken value) throws IOException {
+        switch (name) {
+            case "webdriver": config.setWebdriver(bool(value)); return true;
+            case "chromeApp": config.setChromeApp(bool(value)); return true;
+            case "chromeCsi": config.setChromeCsi(bool(value)); return true;
+            case "chromeLoadTimes": config.setChromeLoadTimes(bool(value)); return true;
+            case "chromeRuntime": config.setChromeRuntime(bool(value)); return true;
+            case "iframeContentWindow": config.setIframeContentWindow(bool(value)); return true;
+            case "mediaCodecs": config.setMediaCodecs(bool(value)); return true;
+            case "navigatorLanguages": config.setNavigatorLanguages(bool(value)); return true;
+            case "navigatorPermissions": config.setNavigatorPermissions(bool(value)); return true;
+            case "navigatorPlatform": config.setNavigatorPlatform(bool(value)); return true;
+            case "navigatorPlugins": config.setNavigatorPlugins(bool(value)); return true;
+            case "navigatorUserAgent": config.setNavigatorUserAgent(bool(value)); return true;
+            case "navigatorVendor": config.setNavigatorVendor(bool(value)); return true;
+            case "outerDimensions": config.setOuterDimensions(bool(value)); return true;
+            case "hairline": config.setHairline(bool(value)); return true;
+            case "bundleScripts": config.setBundleScripts(bool(value)); return true;
+            case "minifyScripts": config.setMinifyScripts(bool(value)); return true;
+            case "nativeEmulation": config.setNativeEmulation(bool(value)); return true;
+            case "proxyFree": config.setProxyFree(bool(value)); return true;
+            case "lazyEvasions": config.setLazyEvasions(bool(value)); return true;
+            case "runOnInsecureOrigins": config.setRunOnInsecureOrigins(bool(value)); return true;
+            case "webglVendor":
+                // A flag in StealthConfig, the vendor string in FingerprintProfile
+                if (value == JsonToken.VALUE_STRING) {
+                    config.setVendor(string());
+                } else {
+                    config.setWebglVendor(bool(value));
+                }
+                return true;
+            case "vendor": config.setVendor(string()); return true;
+            case "renderer":
+            case "webglRenderer": config.setRenderer(string()); return true;
+            case "navVendor": config.setNavVendor(string()); return true;
+            case "navUserAgent":
+            case "userAgent": config.setNavUserAgent(string()); return true;
+            case "navPlatform":
+            case "platform": config.setNavPlatform(string()); return true;
+            case "navigatorHardwareConcurrency":
+            case "hardwareConcurrency": config.setNavigatorHardwareConcurrency(parser.getValueAsInt()); return true;
+            case "screenWidth": screenWidth = parser.getValueAsInt(); return true;
+            case "screenHeight": screenHeight = parser.getValueAsInt(); return true;
+            case "transport": config.setTransport(StealthTransport.valueOf(parser.getText())); return true;
+            case "languages": config.setLanguages(languages(value)); return true;
+            default: return false;
+        }
+    }
+
+    private void setNull(StealthConfig config, String name) {
+        switch (name) {
+            case "vendor": config.setVendor(null); break;
+            case "renderer": case "webglRenderer": config.setRenderer(null); break;
+            case "navVendor": config.setNavVendor(null); break;
+            case "navUserAgent": case "userAgent": config.setNavUserAgent(null); break;
+            case "navPlatform": case "platform": config.setNavPlatform(null); break;
+            case "languages": config.setLanguages(null); break;
+            case "runOnInsecureOrigins": config.setRunOnInsecureOrigins(null); break;
+            default: break;
+        }
+    }
+
+    private boolean bool(JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_TRUE && value != JsonToken.VALUE_FALSE) {
+            throw new IOException("Expected a boolean for " + parser.getCurrentName() + " at " + parser.getCurrentLocation());
+        }
+        return value == JsonToken.VALUE_TRUE;
+    }
+
+    private String string() throws IOException {
+        String value = parser.getText();
+        String interned = strings.putIfAbsent(value, value);
+        return interned == null ? value : interned;
+    }
+
+    private List<String> languages(JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            throw new IOException("Expected an array for languages at " + parser.getCurrentLocation());
+        }
+        List<String> languages = new ArrayList<>(4);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            languages.add(string());
+        }
+        List<String> interned = languageLists.get(languages);
+        if (interned == null) {
+            interned = Collections.unmodifiableList(languages);
+            languageLists.put(interned, interned);
+        }
+        return interned;
+    }
+}
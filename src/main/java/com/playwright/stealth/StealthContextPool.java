@@ -0,0 +1,519 @@
+package com.playwright.stealth;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.CDPSession;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of warm browser contexts with stealth already applied.
+ * Every pooled context has the stealth bundle registered and one page primed on
+ * {@code about:blank}, so a lease skips context creation, injection and the first navigation.
+ * Contexts are recycled after a maximum number of uses or when they sat idle too long,
+ * and returned contexts beyond the idle capacity are closed.
+ *
+ * <p>A returned context is reset before the next lease: its pages are closed and a fresh page is
+ * primed, so sessionStorage and history start empty; cookies are cleared; localStorage, IndexedDB,
+ * Cache Storage and service workers of every origin the context navigated to are cleared through
+ * CDP; and permissions are reset to those of the context options. Storage can only be cleared on
+ * Chromium, so elsewhere returned contexts are closed instead of reused unless
+ * {@link Builder#clearStorageOnReturn(boolean)} is turned off.</p>
+ *
+ * <p>Creating, priming and closing contexts are Playwright calls and run on the thread calling
+ * {@link #lease()} or {@link Lease#close()}. Like every Playwright object, a pool must only be
+ * used from the thread that owns its browser; use one pool per {@code Playwright} instance.
+ * Since no other thread can return a lease, {@link #lease()} never waits: it fails at once when
+ * all {@code maxSize} contexts are leased.</p>
+ *
+ * <pre>{@code
+ * StealthContextPool pool = StealthContextPool.builder(browser)
+ *     .config(snapshot)
+ *     .warmSize(4)
+ *     .maxUses(50)
+ *     .build();
+ *
+ * try (StealthContextPool.Lease lease = pool.lease()) {
+ *     lease.page().navigate("https://example.com");
+ * }
+ * }</pre>
+ */
+public class StealthContextPool implements AutoCloseable {
+
+    private static final String PRIME_URL = "about:blank";
+    private static final String CLEARED_STORAGE = "local_storage,indexeddb,websql,file_systems,cache_storage,service_workers";
+
+    private final Browser browser;
+    private final StealthSnapshot snapshot;
+    private final Browser.NewContextOptions contextOptions;
+    private final int warmSize;
+    private final int maxSize;
+    private final int maxUses;
+    private final long maxIdleNanos;
+    private final boolean clearCookiesOnReturn;
+    private final boolean clearStorageOnReturn;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<PooledContext> idle = new ArrayDeque<>();
+    private int total;
+    private boolean closed;
+
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder creates = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private StealthContextPool(Builder builder) {
+        this.browser = builder.browser;
+        this.snapshot = builder.config.snapshot();
+        this.contextOptions = builder.contextOptions;
+        this.warmSize = builder.warmSize;
+        this.maxSize = builder.maxSize;
+        this.maxUses = builder.maxUses;
+        this.maxIdleNanos = builder.maxIdleTime == null ? Long.MAX_VALUE : builder.maxIdleTime.toNanos();
+        this.clearCookiesOnReturn = builder.clearCookiesOnReturn;
+        this.clearStorageOnReturn = builder.clearStorageOnReturn;
+    }
+
+    /**
+     * Creates a builder for a pool of contexts from the given browser.
+     *
+     * @param browser Browser to create contexts in
+     * @return A new Builder instance
+     */
+    public static Builder builder(Browser browser) {
+        return new Builder(browser);
+    }
+
+    /**
+     * Creates contexts until the pool holds its warm size.
+     */
+    public void warmUp() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || idle.size() >= warmSize || total >= maxSize) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledContext created = create();
+            lock.lock();
+            try {
+                idle.addLast(created);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Leases a context, creating one if none is idle.
+     *
+     * @return Lease that returns the context to the pool when closed
+     * @throws IllegalStateException if the pool is closed or all {@code maxSize} contexts are leased
+     */
+    public Lease lease() {
+        List<PooledContext> expired = new ArrayList<>();
+        PooledContext leased;
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Context pool is closed");
+            }
+            collectExpired(expired);
+            leased = idle.pollFirst();
+            if (leased == null) {
+                if (total >= maxSize) {
+                    rejections.increment();
+                    throw new IllegalStateException("Context pool exhausted, all " + maxSize + " contexts are leased");
+                }
+                total++;
+            }
+        } finally {
+            lock.unlock();
+            closeAll(expired);
+        }
+
+        if (leased == null) {
+            leased = create();
+        }
+        leases.increment();
+        return new Lease(this, leased);
+    }
+
+    private void release(PooledContext pooled) {
+        pooled.uses++;
+        boolean recycle = pooled.uses >= maxUses || !reset(pooled);
+
+        lock.lock();
+        try {
+            if (!recycle && !closed && idle.size() < Math.max(warmSize, 1)) {
+                pooled.idleSince = System.nanoTime();
+                idle.addFirst(pooled);
+                return;
+            }
+            total--;
+        } finally {
+            lock.unlock();
+        }
+
+        evictions.increment();
+        closeQuietly(pooled);
+    }
+
+    /**
+     * Brings a returned context back to its primed state, on a fresh page.
+     * @return false if the context is no longer usable or could not be cleared
+     */
+    private boolean reset(PooledContext pooled) {
+        try {
+            // A new page also starts with empty sessionStorage and history
+            Page page = pooled.context.newPage();
+            for (Page old : pooled.context.pages()) {
+                if (old != page) {
+                    old.close();
+                }
+            }
+            pooled.page = page;
+            if (clearCookiesOnReturn) {
+                pooled.context.clearCookies();
+            }
+            if (clearStorageOnReturn && !pooled.origins.isEmpty()) {
+                CDPSession session = pooled.context.newCDPSession(page);
+                try {
+                    for (String origin : pooled.origins) {
+                        JsonObject params = new JsonObject();
+                        params.addProperty("origin", origin);
+                        params.addProperty("storageTypes", CLEARED_STORAGE);
+                        session.send("Storage.clearDataForOrigin", params);
+                    }
+                } finally {
+                    session.detach();
+                }
+                pooled.origins.clear();
+            }
+            pooled.context.clearPermissions();
+            if (contextOptions != null && contextOptions.permissions != null) {
+                pooled.context.grantPermissions(contextOptions.permissions);
+            }
+            page.navigate(PRIME_URL);
+            return true;
+        } catch (RuntimeException e) {
+            // Includes browsers without CDP, whose storage cannot be cleared
+            return false;
+        }
+    }
+
+    private PooledContext create() {
+        BrowserContext context = null;
+        try {
+            context = contextOptions == null ? browser.newContext() : browser.newContext(contextOptions);
+            Stealth.stealthContext(context, snapshot);
+            Page page = context.newPage();
+            page.navigate(PRIME_URL);
+            creates.increment();
+            PooledContext pooled = new PooledContext(context, page);
+            // Remember every origin a frame navigates to, so its storage can be cleared on return
+            context.onRequest(request -> {
+                if (request.isNavigationRequest()) {
+                    String origin = origin(request.url());
+                    if (origin != null) {
+                        pooled.origins.add(origin);
+                    }
+                }
+            });
+            return pooled;
+        } catch (RuntimeException e) {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (RuntimeException ignored) {
+                    // Already failing, keep the original exception
+                }
+            }
+            lock.lock();
+            try {
+                total--;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the origin of an HTTP(S) URL, or null for other schemes such as {@code about:} and {@code data:}.
+     */
+    static String origin(String url) {
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            return scheme.toLowerCase(Locale.ROOT) + "://" + uri.getHost().toLowerCase(Locale.ROOT)
+                + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private void collectExpired(List<PooledContext> expired) {
+        if (maxIdleNanos == Long.MAX_VALUE) {
+            return;
+        }
+        long now = System.nanoTime();
+        Iterator<PooledContext> it = idle.iterator();
+        while (it.hasNext()) {
+            PooledContext pooled = it.next();
+            if (now - pooled.idleSince >= maxIdleNanos) {
+                it.remove();
+                total--;
+                expired.add(pooled);
+            }
+        }
+    }
+
+    /**
+     * Closes idle contexts that exceeded the maximum idle time.
+     */
+    public void evictIdle() {
+        List<PooledContext> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            collectExpired(expired);
+        } finally {
+            lock.unlock();
+        }
+        closeAll(expired);
+    }
+
+    private void closeAll(List<PooledContext> contexts) {
+        for (PooledContext pooled : contexts) {
+            evictions.increment();
+            closeQuietly(pooled);
+        }
+    }
+
+    private static void closeQuietly(PooledContext pooled) {
+        try {
+            pooled.context.close();
+        } catch (RuntimeException ignored) {
+            // The browser may already be gone
+        }
+    }
+
+    /**
+     * Closes all idle contexts. Leased contexts are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledContext> contexts;
+        lock.lock();
+        try {
+            closed = true;
+            contexts = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledContext pooled : contexts) {
+            closeQuietly(pooled);
+        }
+    }
+
+    /**
+     * Returns a point-in-time view of the pool counters.
+     *
+     * @return Pool statistics
+     */
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(leases.sum(), rejections.sum(), creates.sum(), evictions.sum(), idle.size(), total - idle.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class PooledContext {
+        final BrowserContext context;
+        final Set<String> origins = new HashSet<>();
+        Page page;
+        int uses;
+        long idleSince = System.nanoTime();
+
+        PooledContext(BrowserContext context, Page page) {
+            this.context = context;
+            this.page = page;
+        }
+    }
+
+    /**
+     * A leased context. Closing the lease returns the context to the pool.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final StealthContextPool pool;
+        private final PooledContext pooled;
+        private boolean returned;
+
+        private Lease(StealthContextPool pool, PooledContext pooled) {
+            this.pool = pool;
+            this.pooled = pooled;
+        }
+
+        public BrowserContext context() { return pooled.context; }
+
+        /** The primed page, already showing {@code about:blank}. Each lease gets a new page. */
+        public Page page() { return pooled.page; }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                pool.release(pooled);
+            }
+        }
+    }
+
+    /**
+     * Pool counters. Leases, rejections, creates and evictions are totals since the pool was built.
+     * A rejection is a lease that failed because all contexts were leased.
+     */
+    public static final class Stats {
+        private final long leases;
+        private final long rejections;
+        private final long creates;
+        private final long evictions;
+        private final int idle;
+        private final int leased;
+
+        Stats(long leases, long rejections, long creates, long evictions, int idle, int leased) {
+            this.leases = leases;
+            this.rejections = rejections;
+            this.creates = creates;
+            this.evictions = evictions;
+            this.idle = idle;
+            this.leased = leased;
+        }
+
+        public long getLeases() { return leases; }
+        public long getRejections() { return rejections; }
+        public long getCreates() { return creates; }
+        public long getEvictions() { return evictions; }
+        public int getIdle() { return idle; }
+        public int getLeased() { return leased; }
+
+        @Override
+        public String toString() {
+            return "Stats{leases=" + leases + ", rejections=" + rejections + ", creates=" + creates
+                + ", evictions=" + evictions + ", idle=" + idle + ", leased=" + leased + "}";
+        }
+    }
+
+    /**
+     * Builder class for creating StealthContextPool instances with fluent API.
+     */
+    public static class Builder {
+        private final Browser browser;
+        private StealthConfig config = new StealthConfig();
+        private Browser.NewContextOptions contextOptions;
+        private int warmSize = 2;
+        private int maxSize = 8;
+        private int maxUses = 100;
+        private Duration maxIdleTime = Duration.ofMinutes(5);
+        private boolean clearCookiesOnReturn = true;
+        private boolean clearStorageOnReturn = true;
+
+        private Builder(Browser browser) {
+            if (browser == null) {
+                throw new IllegalArgumentException("Browser cannot be null");
+            }
+            this.browser = browser;
+        }
+
+        public Builder config(StealthConfig config) {
+            this.config = config == null ? new StealthConfig() : config;
+            return this;
+        }
+
+        public Builder contextOptions(Browser.NewContextOptions contextOptions) {
+            this.contextOptions = contextOptions;
+            return this;
+        }
+
+        /** Number of contexts kept idle and ready, and the idle capacity beyond which returns are closed. */
+        public Builder warmSize(int warmSize) {
+            this.warmSize = warmSize;
+            return this;
+        }
+
+        /** Maximum number of contexts, idle and leased together. */
+        public Builder maxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /** Number of leases after which a context is closed instead of returned. */
+        public Builder maxUses(int maxUses) {
+            this.maxUses = maxUses;
+            return this;
+        }
+
+        /** Idle time after which a context is closed, or null to keep idle contexts forever. */
+        public Builder maxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+            return this;
+        }
+
+        public Builder clearCookiesOnReturn(boolean clearCookiesOnReturn) {
+            this.clearCookiesOnReturn = clearCookiesOnReturn;
+            return this;
+        }
+
+        /**
+         * Whether returned contexts have the localStorage, IndexedDB, Cache Storage and service workers of
+         * the origins they visited cleared. Needs Chromium; elsewhere returned contexts are closed instead.
+         */
+        public Builder clearStorageOnReturn(boolean clearStorageOnReturn) {
+            this.clearStorageOnReturn = clearStorageOnReturn;
+            return this;
+        }
+
+        /**
+         * Builds the pool and creates the warm contexts.
+         *
+         * @return A new, warmed up pool
+         */
+        public StealthContextPool build() {
+            if (warmSize < 0 || maxSize <= 0 || warmSize > maxSize) {
+                throw new IllegalArgumentException("Pool sizes must satisfy 0 <= warmSize <= maxSize and maxSize > 0");
+            }
+            if (maxUses <= 0) {
+                throw new IllegalArgumentException("maxUses must be positive");
+            }
+            StealthContextPool pool = new StealthContextPool(this);
+            pool.warmUp();
+            return pool;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.playwright.stealth;
+
+/**
+ * Receives measurements from {@link Stealth} and {@link StealthScriptCache}.
+ * Implementations must be thread-safe and cheap, since they are called on every injection.
+ * Every method has an empty default, so an implementation only overrides what it records.
+ *
+ * <p>Install one with {@link Stealth#setMetrics(StealthMetrics)}. The default is {@link #NOOP};
+ * {@link InMemoryStealthMetrics} is a dependency-free implementation with a snapshot API.</p>
+ */
+public interface StealthMetrics {
+
+    /** Implementation that records nothing. */
+    StealthMetrics NOOP = new StealthMetrics() {};
+
+    /**
+     * Called after stealth was applied to a page.
+     *
+     * @param configFingerprint {@link StealthConfig#fingerprint()} of the applied configuration
+     * @param scripts Number of init scripts registered
+     * @param bytes UTF-8 size of the registered scripts
+     * @param nanos Time spent registering the scripts
+     */
+    default void pageStealthed(long configFingerprint, int scripts, long bytes, long nanos) {}
+
+    /**
+     * Called after stealth was applied to a browser context.
+     *
+     * @param configFingerprint {@link StealthConfig#fingerprint()} of the applied configuration
+     * @param scripts Number of init scripts registered
+     * @param bytes UTF-8 size of the registered scripts
+     * @param nanos Time spent registering the scripts
+     */
+    default void contextStealthed(long configFingerprint, int scripts, long bytes, long nanos) {}
+
+    /** Called when a script cache lookup found a generated entry. */
+    default void cacheHit() {}
+
+    /** Called when a script cache lookup had to generate the scripts. */
+    default void cacheMiss() {}
+}
@@ -0,0 +1,331 @@
+package com.playwright.stealth;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Read-only store of {@link FingerprintProfile}s in a compact binary file.
+ * Every profile is a fixed-size record of string ids and numbers, and each distinct string
+ * is stored once, so millions of profiles that share a few hundred user agents and renderers
+ * take a few dozen bytes each. The file is memory-mapped: looking up profile #N is a direct
+ * offset calculation, and profiles that are never read never touch the heap.
+ *
+ * <pre>{@code
+ * StealthProfileStore.write(path, profiles);
+ * StealthProfileStore store = StealthProfileStore.open(path);
+ * Stealth.stealth(page, store.toSnapshot(workerId % store.size()));
+ * }</pre>
+ *
+ * <p>Layout, all values big-endian:</p>
+ * <pre>
+ * header   magic "SPS1", version, profile count, string count, string index offset (long), string data offset (long)
+ * records  user agent, platform, WebGL vendor, WebGL renderer, languages (string ids, -1 for null),
+ *          hardware concurrency, screen width, screen height (unsigned shorts), padding
+ * index    offset of every string relative to the string data
+ * strings  length-prefixed UTF-8; languages are stored comma-joined, an empty list as null
+ * </pre>
+ *
+ * <p>Instances are thread-safe. A single file is limited to 2 GB, which is roughly 70 million profiles.</p>
+ */
+public final class StealthProfileStore {
+
+    static final int MAGIC = 0x53505331;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 28;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final int stringCount;
+    private final int stringIndexOffset;
+    private final int stringDataOffset;
+
+    // Decoded lazily; racing threads decode equal values, which is harmless
+    private final String[] strings;
+    private final List<String>[] languageLists;
+
+    private StealthProfileStore(MappedByteBuffer buffer, Path path) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a profile store: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported profile store version " + buffer.getInt(4) + ": " + path);
+        }
+        this.size = buffer.getInt(8);
+        this.stringCount = buffer.getInt(12);
+        this.stringIndexOffset = (int) buffer.getLong(16);
+        this.stringDataOffset = (int) buffer.getLong(24);
+        if ((long) HEADER_SIZE + (long) size * RECORD_SIZE > stringIndexOffset
+                || stringIndexOffset + (long) stringCount * 4 > stringDataOffset
+                || stringDataOffset > buffer.capacity()) {
+            throw new IOException("Corrupt profile store: " + path);
+        }
+        this.strings = new String[stringCount];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<String>[] lists = new List[stringCount];
+        this.languageLists = lists;
+    }
+
+    /**
+     * Maps a profile store file into memory.
+     *
+     * @param path File written by {@link #write(Path, Iterable)}
+     * @return Store backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a profile store
+     */
+    public static StealthProfileStore open(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Profile store larger than 2 GB: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return new StealthProfileStore(buffer, path);
+        }
+    }
+
+    /**
+     * Writes profiles to a new store file, replacing any existing file.
+     * Profiles are streamed, so only the distinct strings are held in memory.
+     *
+     * @param path Target file
+     * @param profiles Profiles in store order
+     * @return Number of profiles written
+     * @throws IOException if the file cannot be written
+     */
+    public static int write(Path path, Iterable<FingerprintProfile> profiles) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        if (profiles == null) {
+            throw new IllegalArgumentException("Profiles cannot be null");
+        }
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<byte[]> encoded = new ArrayList<>();
+        int count = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            channel.position(HEADER_SIZE);
+
+            for (FingerprintProfile profile : profiles) {
+                if (out.remaining() < RECORD_SIZE) {
+                    flush(channel, out);
+                }
+                out.putInt(intern(profile.getUserAgent(), ids, encoded));
+                out.putInt(intern(profile.getPlatform(), ids, encoded));
+                out.putInt(intern(profile.getWebglVendor(), ids, encoded));
+                out.putInt(intern(profile.getWebglRenderer(), ids, encoded));
+                out.putInt(profile.getLanguages().isEmpty() ? -1 : intern(String.join(",", profile.getLanguages()), ids, encoded));
+                out.putShort(unsignedShort(profile.getHardwareConcurrency(), "Hardware concurrency"));
+                out.putShort(unsignedShort(profile.getScreenWidth(), "Screen width"));
+                out.putShort(unsignedShort(profile.getScreenHeight(), "Screen height"));
+                out.putShort((short) 0);
+                count++;
+            }
+
+            // String index, then the strings themselves
+            long stringIndexOffset = HEADER_SIZE + (long) count * RECORD_SIZE;
+            int offset = 0;
+            for (byte[] bytes : encoded) {
+                if (out.remaining() < 4) {
+                    flush(channel, out);
+                }
+                out.putInt(offset);
+                offset += 4 + bytes.length;
+            }
+            long stringDataOffset = stringIndexOffset + (long) encoded.size() * 4;
+            for (byte[] bytes : encoded) {
+                if (out.remaining() < 4) {
+                    flush(channel, out);
+                }
+                out.putInt(bytes.length);
+                int written = 0;
+                while (written < bytes.length) {
+                    if (!out.hasRemaining()) {
+                        flush(channel, out);
+                    }
+                    int chunk = Math.min(out.remaining(), bytes.length - written);
+                    out.put(bytes, written, chunk);
+                    written += chunk;
+                }
+            }
+            flush(channel, out);
+
+            out.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(encoded.size())
+                .putLong(stringIndexOffset).putLong(stringDataOffset);
+            out.flip();
+            channel.write(out, 0);
+        }
+        return count;
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<byte[]> encoded) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = encoded.size();
+            ids.put(value, id);
+            encoded.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    private static short unsignedShort(int value, String name) {
+        if (value < 0 || value > 0xffff) {
+            throw new IllegalArgumentException(name + " out of range: " + value);
+        }
+        return (short) value;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * @return Number of profiles in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of distinct strings shared by the profiles
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Reads one profile.
+     *
+     * @param index Profile index, from 0 to {@link #size()} - 1
+     * @return The profile
+     */
+    public FingerprintProfile get(int index) {
+        int record = recordOffset(index);
+        return new FingerprintProfile(
+            string(buffer.getInt(record)),
+            string(buffer.getInt(record + 4)),
+            string(buffer.getInt(record + 8)),
+            string(buffer.getInt(record + 12)),
+            profileLanguages(buffer.getInt(record + 16)),
+            Short.toUnsignedInt(buffer.getShort(record + 20)),
+            Short.toUnsignedInt(buffer.getShort(record + 22)),
+            Short.toUnsignedInt(buffer.getShort(record + 24)));
+    }
+
+    /**
+     * Creates a default configuration carrying one profile's values.
+     *
+     * @param index Profile index
+     * @return New configuration
+     */
+    public StealthConfig toConfig(int index) {
+        return toConfig(index, null);
+    }
+
+    /**
+     * Creates a copy of a base configuration carrying one profile's values.
+     *
+     * @param index Profile index
+     * @param base Configuration providing the flags, or null for the defaults
+     * @return New configuration
+     */
+    public StealthConfig toConfig(int index, StealthConfig base) {
+        int record = recordOffset(index);
+        StealthConfig config = base == null ? new StealthConfig() : new StealthConfig(base);
+        config.setNavUserAgent(string(buffer.getInt(record)));
+        config.setNavPlatform(string(buffer.getInt(record + 4)));
+        config.setVendor(string(buffer.getInt(record + 8)));
+        config.setRenderer(string(buffer.getInt(record + 12)));
+        config.setLanguages(languages(buffer.getInt(record + 16)));
+        config.setNavigatorHardwareConcurrency(Short.toUnsignedInt(buffer.getShort(record + 20)));
+        return config;
+    }
+
+    /**
+     * Creates a snapshot of a default configuration carrying one profile's values.
+     *
+     * @param index Profile index
+     * @return Immutable snapshot
+     */
+    public StealthSnapshot toSnapshot(int index) {
+        return toSnapshot(index, null);
+    }
+
+    /**
+     * Creates a snapshot of a base configuration carrying one profile's values.
+     *
+     * @param index Profile index
+     * @param base Configuration providing the flags, or null for the defaults
+     * @return Immutable snapshot
+     */
+    public StealthSnapshot toSnapshot(int index, StealthConfig base) {
+        return toConfig(index, base).snapshot();
+    }
+
+    private int recordOffset(int index) {
+        return HEADER_SIZE + Objects.checkIndex(index, size) * RECORD_SIZE;
+    }
+
+    private String string(int id) {
+        if (id < 0) {
+            return null;
+        }
+        String value = strings[id];
+        if (value == null) {
+            int offset = stringDataOffset + buffer.getInt(stringIndexOffset + id * 4);
+            byte[] bytes = new byte[buffer.getInt(offset)];
+            buffer.get(offset + 4, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private List<String> profileLanguages(int id) {
+        List<String> value = languages(id);
+        return value == null ? Collections.emptyList() : value;
+    }
+
+    private List<String> languages(int id) {
+        if (id < 0) {
+            return null;
+        }
+        List<String> value = languageLists[id];
+        if (value == null) {
+            value = Collections.unmodifiableList(Arrays.asList(string(id).split(",")));
+            languageLists[id] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,224 @@
+package com.playwright.stealth;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.BindingCallback;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures what each evasion costs inside the page. Installing the profiler injects the
+ * configured evasions with every one of them wrapped in {@code performance.now()} and JS heap
+ * measurements, and each frame reports its samples back through an exposed binding. The
+ * samples are aggregated per evasion across all pages and frames the profiler was installed on.
+ *
+ * <pre>{@code
+ * StealthProfiler profiler = new StealthProfiler();
+ * profiler.install(context, config);
+ * for (String url : urls) {
+ *     context.newPage().navigate(url);
+ * }
+ * System.out.println(profiler.report());
+ * }</pre>
+ *
+ * <p>The profiler replaces {@link Stealth#stealth} on the pages it is installed on; do not apply
+ * both. It is a diagnostic tool: the binding is visible to the page. Chromium reports heap sizes
+ * in coarse steps unless launched with {@code --enable-precise-memory-info}, and other browsers
+ * report no heap size at all.</p>
+ */
+public final class StealthProfiler {
+
+    static final String BINDING = "__stealthProfile";
+
+    private final Map<String, Accumulator> evasions = new LinkedHashMap<>();
+    private final BindingCallback callback = (source, args) -> {
+        record(source.frame() == source.page().mainFrame(), args.length == 0 ? null : args[0]);
+        return null;
+    };
+    private long pages;
+    private long frames;
+
+    /**
+     * Injects the profiled evasions into a page.
+     *
+     * @param page Page to profile
+     * @param config Configuration selecting the evasions, or null for the defaults
+     */
+    public void install(Page page, StealthConfig config) {
+        if (page == null) {
+            throw new IllegalArgumentException("Page cannot be null");
+        }
+        page.exposeBinding(BINDING, callback);
+        page.addInitScript(script(config));
+    }
+
+    /**
+     * Injects the profiled evasions into every page of a context.
+     *
+     * @param context Context to profile
+     * @param config Configuration selecting the evasions, or null for the defaults
+     */
+    public void install(BrowserContext context, StealthConfig config) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        context.exposeBinding(BINDING, callback);
+        context.addInitScript(script(config));
+    }
+
+    static String script(StealthConfig config) {
+        StealthConfig source = config == null ? new StealthConfig() : config;
+        return StealthBundler.profiledBundle("const opts = " + source.buildOptsJson(), source.getEnabledEvasions(), BINDING);
+    }
+
+    /**
+     * Records the samples one frame reported.
+     *
+     * @param mainFrame Whether the frame is a page's main frame
+     * @param samples List of {@code [name, millis, heapDelta, failed]} entries
+     */
+    synchronized void record(boolean mainFrame, Object samples) {
+        if (!(samples instanceof List)) {
+            return;
+        }
+        frames++;
+        if (mainFrame) {
+            pages++;
+        }
+        for (Object sample : (List<?>) samples) {
+            List<?> values = (List<?>) sample;
+            Accumulator accumulator = evasions.computeIfAbsent((String) values.get(0), name -> new Accumulator());
+            double millis = ((Number) values.get(1)).doubleValue();
+            accumulator.runs++;
+            accumulator.totalMillis += millis;
+            accumulator.maxMillis = Math.max(accumulator.maxMillis, millis);
+            accumulator.heapDelta += ((Number) values.get(2)).longValue();
+            if (Boolean.TRUE.equals(values.get(3))) {
+                accumulator.failures++;
+            }
+        }
+    }
+
+    /**
+     * Returns the aggregated timings so far, most expensive evasion first.
+     *
+     * @return Profiling report
+     */
+    public synchronized Report report() {
+        List<EvasionProfile> profiles = new ArrayList<>(evasions.size());
+        for (Map.Entry<String, Accumulator> entry : evasions.entrySet()) {
+            Accumulator accumulator = entry.getValue();
+            profiles.add(new EvasionProfile(entry.getKey(), accumulator.runs, accumulator.failures,
+                accumulator.totalMillis, accumulator.maxMillis, accumulator.heapDelta));
+        }
+        profiles.sort(Comparator.comparingDouble(EvasionProfile::getTotalMillis).reversed());
+        return new Report(pages, frames, Collections.unmodifiableList(profiles));
+    }
+
+    /** Discards all samples recorded so far. */
+    public synchronized void reset() {
+        evasions.clear();
+        pages = 0;
+        frames = 0;
+    }
+
+    private static final class Accumulator {
+        long runs;
+        long failures;
+        double totalMillis;
+        double maxMillis;
+        long heapDelta;
+    }
+
+    /**
+     * Aggregated cost of one evasion. The utilities shared by all evasions are reported as {@code utils}.
+     */
+    public static final class EvasionProfile {
+        private final String name;
+        private final long runs;
+        private final long failures;
+        private final double totalMillis;
+        private final double maxMillis;
+        private final long heapDelta;
+
+        EvasionProfile(String name, long runs, long failures, double totalMillis, double maxMillis, long heapDelta) {
+            this.name = name;
+            this.runs = runs;
+            this.failures = failures;
+            this.totalMillis = totalMillis;
+            this.maxMillis = maxMillis;
+            this.heapDelta = heapDelta;
+        }
+
+        public String getName() { return name; }
+
+        /** Number of frames the evasion patched. */
+        public long getRuns() { return runs; }
+
+        /** Number of runs that threw. */
+        public long getFailures() { return failures; }
+
+        public double getTotalMillis() { return totalMillis; }
+        public double getMaxMillis() { return maxMillis; }
+        public double getMeanMillis() { return runs == 0 ? 0 : totalMillis / runs; }
+
+        /** Mean JS heap growth per run in bytes. */
+        public double getMeanHeapDelta() { return runs == 0 ? 0 : (double) heapDelta / runs; }
+    }
+
+    /**
+     * Point-in-time profiling report.
+     */
+    public static final class Report {
+        private final long pages;
+        private final long frames;
+        private final List<EvasionProfile> evasions;
+
+        Report(long pages, long frames, List<EvasionProfile> evasions) {
+            this.pages = pages;
+            this.frames = frames;
+            this.evasions = evasions;
+        }
+
+        /** Number of main frames that reported. */
+        public long getPages() { return pages; }
+
+        /** Number of frames, including iframes, that reported. */
+        public long getFrames() { return frames; }
+
+        /** Per-evasion profiles, most expensive in total first. */
+        public List<EvasionProfile> getEvasions() { return evasions; }
+
+        /**
+         * Returns the profile of one evasion.
+         *
+         * @param name Evasion name, e.g. {@code navigator.plugins}
+         * @return Profile, or null if the evasion never ran
+         */
+        public EvasionProfile get(String name) {
+            for (EvasionProfile evasion : evasions) {
+                if (evasion.getName().equals(name)) {
+                    return evasion;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%d pages, %d frames%n", pages, frames));
+            sb.append(String.format("%-24s %8s %8s %10s %10s %10s %12s%n",
+                "evasion", "frames", "failed", "total ms", "mean ms", "max ms", "mean heap B"));
+            for (EvasionProfile evasion : evasions) {
+                sb.append(String.format("%-24s %8d %8d %10.3f %10.4f %10.3f %12.0f%n", evasion.getName(),
+                    evasion.getRuns(), evasion.getFailures(), evasion.getTotalMillis(), evasion.getMeanMillis(),
+                    evasion.getMaxMillis(), evasion.getMeanHeapDelta()));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.playwright.stealth;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Route;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Aborts requests that a stealthed crawl does not need, through a single {@code route} handler.
+ * A request is blocked if its resource type is blocked, if its host is a blocked domain or a
+ * subdomain of one, or if its URL contains a blocked pattern. Domains and patterns are compiled
+ * into one automaton each, so a decision walks the URL once no matter how many entries the
+ * blocklist has. Requests that are not blocked fall back to any other route handlers.
+ *
+ * <pre>{@code
+ * StealthRequestBlocker blocker = StealthRequestBlocker.builder()
+ *     .blockResourceTypes("image", "media", "font")
+ *     .blocklist(Paths.get("blocklist.txt"))
+ *     .build();
+ * Stealth.stealthLean(page, config, blocker);
+ * }</pre>
+ *
+ * <p>Instances are thread-safe and can be installed on any number of pages and contexts.</p>
+ */
+public final class StealthRequestBlocker {
+
+    /** Resource types as reported by {@link Request#resourceType()}. */
+    static final List<String> RESOURCE_TYPES = Arrays.asList(
+        "document", "stylesheet", "image", "media", "font", "script", "texttrack",
+        "xhr", "fetch", "eventsource", "websocket", "manifest", "other");
+
+    private static final List<String> DEFAULT_TRACKER_DOMAINS = Arrays.asList(
+        "google-analytics.com", "googletagmanager.com", "doubleclick.net", "googlesyndication.com",
+        "adservice.google.com", "facebook.net", "connect.facebook.net", "hotjar.com", "segment.io",
+        "scorecardresearch.com", "quantserve.com", "criteo.com", "taboola.com", "outbrain.com");
+
+    private static final Set<String> LOCAL_HOSTS = new LinkedHashSet<>(Arrays.asList(
+        "0.0.0.0", "127.0.0.1", "255.255.255.255", "localhost.localdomain"));
+
+    private final int blockedTypes;
+    private final UrlMatcher matcher;
+    private final int domainCount;
+    private final int patternCount;
+    private final Consumer<Route> handler = this::handle;
+
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder decisionNanos = new LongAdder();
+
+    private StealthRequestBlocker(Builder builder) {
+        this.blockedTypes = builder.blockedTypes;
+        this.matcher = new UrlMatcher(builder.domains, builder.patterns);
+        this.domainCount = builder.domains.size();
+        this.patternCount = builder.patterns.size();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a blocker for images, media, fonts and common analytics and ad domains,
+     * which is what {@link Stealth#stealthLean(Page, StealthConfig)} installs.
+     */
+    public static StealthRequestBlocker defaults() {
+        return Holder.DEFAULTS;
+    }
+
+    private static final class Holder {
+        static final StealthRequestBlocker DEFAULTS = builder()
+            .blockResourceTypes("image", "media", "font")
+            .blockDomains(DEFAULT_TRACKER_DOMAINS)
+            .build();
+    }
+
+    /**
+     * Decides whether a request should be blocked.
+     *
+     * @param url Request URL
+     * @param resourceType Resource type as reported by {@link Request#resourceType()}, or null
+     * @return true if the request should be aborted
+     */
+    public boolean shouldBlock(String url, String resourceType) {
+        if (resourceType != null && (blockedTypes & typeBit(resourceType)) != 0) {
+            return true;
+        }
+        return matcher.matchesDomain(url) || matcher.matchesPattern(url);
+    }
+
+    /**
+     * Installs the blocker on a page.
+     * @param page Page to install on
+     */
+    public void install(Page page) {
+        if (page == null) {
+            throw new IllegalArgumentException("Page cannot be null");
+        }
+        page.route("**/*", handler);
+    }
+
+    /**
+     * Installs the blocker on every page of a context.
+     * @param context Context to install on
+     */
+    public void install(BrowserContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        context.route("**/*", handler);
+    }
+
+    private void handle(Route route) {
+        Request request = route.request();
+        long start = System.nanoTime();
+        boolean block = shouldBlock(request.url(), request.resourceType());
+        decisionNanos.add(System.nanoTime() - start);
+        decisions.increment();
+        if (block) {
+            blocked.increment();
+            route.abort("blockedbyclient");
+        } else {
+            route.fallback();
+        }
+    }
+
+    private static int typeBit(String resourceType) {
+        switch (resourceType) {
+            case "document": return 1;
+            case "stylesheet": return 1 << 1;
+            case "image": return 1 << 2;
+            case "media": return 1 << 3;
+            case "font": return 1 << 4;
+            case "script": return 1 << 5;
+            case "texttrack": return 1 << 6;
+            case "xhr": return 1 << 7;
+            case "fetch": return 1 << 8;
+            case "eventsource": return 1 << 9;
+            case "websocket": return 1 << 10;
+            case "manifest": return 1 << 11;
+            case "other": return 1 << 12;
+            default: return 0;
+        }
+    }
+
+    public int getDomainCount() { return domainCount; }
+    public int getPatternCount() { return patternCount; }
+
+    /** Number of requests seen by installed handlers. */
+    public long getDecisions() { return decisions.sum(); }
+
+    /** Number of requests aborted by installed handlers. */
+    public long getBlocked() { return blocked.sum(); }
+
+    /**
+     * Returns the mean time spent deciding whether to block a request, excluding the driver round-trip.
+     * @return Mean decision time in nanoseconds, or 0 before the first request
+     */
+    public double getAverageDecisionNanos() {
+        long count = decisions.sum();
+        return count == 0 ? 0 : (double) decisionNanos.sum() / count;
+    }
+
+    @Override
+    public String toString() {
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < RESOURCE_TYPES.size(); i++) {
+            if ((blockedTypes & (1 << i)) != 0) {
+                types.add(RESOURCE_TYPES.get(i));
+            }
+        }
+        return "StealthRequestBlocker{types=" + types + ", domains=" + domainCount + ", patterns=" + patternCount + "}";
+    }
+
+    /**
+     * Builder for {@link StealthRequestBlocker}.
+     */
+    public static class Builder {
+        private int blockedTypes;
+        private final Set<String> domains = new LinkedHashSet<>();
+        private final Set<String> patterns = new LinkedHashSet<>();
+
+        private Builder() {}
+
+        /**
+         * Blocks every request of the given resource types, e.g. {@code image}, {@code font} or {@code media}.
+         */
+        public Builder blockResourceTypes(String... resourceTypes) {
+            for (String type : resourceTypes) {
+                int bit = typeBit(type);
+                if (bit == 0) {
+                    throw new IllegalArgumentException("Unknown resource type: " + type);
+                }
+                blockedTypes |= bit;
+            }
+            return this;
+        }
+
+        /**
+         * Blocks requests to the given domains and all their subdomains.
+         */
+        public Builder blockDomains(Iterable<String> domains) {
+            for (String domain : domains) {
+                addDomain(domain);
+            }
+            return this;
+        }
+
+        public Builder blockDomains(String... domains) {
+            return blockDomains(Arrays.asList(domains));
+        }
+
+        /**
+         * Blocks requests whose URL contains any of the given substrings, ignoring ASCII case.
+         */
+        public Builder blockUrlPatterns(Iterable<String> patterns) {
+            for (String pattern : patterns) {
+                if (pattern == null || pattern.isEmpty()) {
+                    throw new IllegalArgumentException("Pattern cannot be empty");
+                }
+                this.patterns.add(pattern);
+            }
+            return this;
+        }
+
+        public Builder blockUrlPatterns(String... patterns) {
+            return blockUrlPatterns(Arrays.asList(patterns));
+        }
+
+        /**
+         * Adds the entries of a blocklist file. Each line is one of:
+         * <ul>
+         *   <li>{@code ||example.com^} (adblock domain rule, options after {@code ^} or {@code $} are ignored)</li>
+         *   <li>{@code 0.0.0.0 example.com} (hosts file entry, any whitespace, one or more hosts)</li>
+         *   <li>{@code example.com} (bare domain)</li>
+         *   <li>anything else without wildcards, used as a URL substring; a {@code |} anchor is dropped</li>
+         * </ul>
+         * Empty lines, comments starting with {@code #} or {@code !}, exception rules ({@code @@}),
+         * element hiding rules ({@code ##}, {@code #@#}) and rules with {@code *} are skipped.
+         */
+        public Builder blocklist(Path path) {
+            if (path == null) {
+                throw new IllegalArgumentException("Path cannot be null");
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    addRule(line.trim());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read blocklist " + path, e);
+            }
+            return this;
+        }
+
+        void addRule(String line) {
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("!") || line.startsWith("@@")
+                    || line.indexOf('*') >= 0 || isCosmetic(line)) {
+                return;
+            }
+            String[] tokens = line.split("\\s+");
+            if (tokens.length > 1) {
+                if (isAddress(tokens[0])) {
+                    for (int i = 1; i < tokens.length && !tokens[i].startsWith("#"); i++) {
+                        if (isHostname(tokens[i]) && !LOCAL_HOSTS.contains(tokens[i])) {
+                            addDomain(tokens[i]);
+                        }
+                    }
+                }
+                return;
+            }
+            int options = line.lastIndexOf('$');
+            String rule = options < 0 ? line : line.substring(0, options);
+            if (rule.startsWith("||")) {
+                int end = rule.indexOf('^');
+                String host = end < 0 ? rule.substring(2) : rule.substring(2, end);
+                if (isHostname(host)) {
+                    addDomain(host);
+                } else if (!host.isEmpty()) {
+                    patterns.add(host);
+                }
+                return;
+            }
+            if (rule.startsWith("|")) {
+                rule = rule.substring(1);
+            }
+            if (rule.endsWith("|") || rule.endsWith("^")) {
+                rule = rule.substring(0, rule.length() - 1);
+            }
+            if (rule.isEmpty() || rule.indexOf('|') >= 0 || rule.indexOf('^') >= 0) {
+                return;
+            }
+            if (isHostname(rule)) {
+                addDomain(rule);
+                return;
+            }
+            patterns.add(rule);
+        }
+
+        private static boolean isCosmetic(String line) {
+            return line.contains("##") || line.contains("#@#") || line.contains("#?#") || line.contains("#$#");
+        }
+
+        private static boolean isAddress(String token) {
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                if (!(c >= '0' && c <= '9') && c != '.' && c != ':' && !(c >= 'a' && c <= 'f') && !(c >= 'A' && c <= 'F')) {
+                    return false;
+                }
+            }
+            return token.indexOf('.') > 0 || token.indexOf(':') >= 0;
+        }
+
+        /**
+         * Checks for dot-separated labels of letters, digits and inner hyphens.
+         */
+        private static boolean isHostname(String value) {
+            if (value.indexOf('.') < 0) {
+                return false;
+            }
+            int label = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '.') {
+                    if (label == 0 || value.charAt(i - 1) == '-') {
+                        return false;
+                    }
+                    label = 0;
+                } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_'
+                        || (c == '-' && label > 0)) {
+                    label++;
+                } else {
+                    return false;
+                }
+            }
+            return label > 0 && value.charAt(value.length() - 1) != '-';
+        }
+
+        private void addDomain(String domain) {
+            if (domain == null) {
+                throw new IllegalArgumentException("Domain cannot be null");
+            }
+            String trimmed = domain.startsWith(".") ? domain.substring(1) : domain;
+            if (trimmed.isEmpty()) {
+                throw new IllegalArgumentException("Domain cannot be empty");
+            }
+            domains.add(trimmed);
+        }
+
+        public StealthRequestBlocker build() {
+            return new StealthRequestBlocker(this);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.playwright.stealth;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of generated stealth scripts keyed by configuration value.
+ * Equal configurations share one {@link StealthSnapshot} holding the pre-built script list and
+ * bundle, so applying stealth with an already seen configuration is a map lookup instead of
+ * script generation. Lookups hash with {@link StealthConfig#fingerprint()} and confirm the hit
+ * with {@link StealthConfig#equals(Object)}, so two configurations whose fingerprints collide
+ * never share scripts. The stored keys are the snapshots themselves, which cannot change.
+ * The least recently used entry is evicted once the cache is full.
+ * Hits and misses are also reported to {@link Stealth#getMetrics()}.
+ */
+public class StealthScriptCache {
+
+    /** Default number of distinct configurations kept by {@link #shared()}. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final StealthScriptCache SHARED = new StealthScriptCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final Map<StealthConfig, StealthSnapshot> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache holding at most {@code capacity} configurations.
+     *
+     * @param capacity Maximum number of cached configurations
+     */
+    public StealthScriptCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StealthConfig, StealthSnapshot> eldest) {
+                if (size() > StealthScriptCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the process-wide cache used by {@link Stealth}.
+     *
+     * @return The shared cache instance
+     */
+    public static StealthScriptCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the snapshot for the given configuration, creating it on a miss.
+     * Snapshots are returned as-is without touching the cache.
+     *
+     * @param config Stealth configuration
+     * @return Immutable snapshot with precomputed script output
+     */
+    public StealthSnapshot get(StealthConfig config) {
+        if (config instanceof StealthSnapshot) {
+            return (StealthSnapshot) config;
+        }
+
+        StealthSnapshot snapshot;
+        synchronized (entries) {
+            snapshot = entries.get(config);
+        }
+        if (snapshot != null) {
+            hits.increment();
+            Stealth.getMetrics().cacheHit();
+            return snapshot;
+        }
+
+        misses.increment();
+        Stealth.getMetrics().cacheMiss();
+        // Generate outside the lock; a concurrent miss for the same key just does the work twice.
+        // The snapshot is its own key, so later changes to the caller's configuration cannot corrupt the map.
+        StealthSnapshot created = config.snapshot();
+        synchronized (entries) {
+            snapshot = entries.putIfAbsent(created, created);
+        }
+        return snapshot != null ? snapshot : created;
+    }
+
+    /**
+     * Returns the script list for the given configuration, generating it on a miss.
+     *
+     * @param config Stealth configuration
+     * @return Unmodifiable list of JavaScript code strings, as {@link StealthConfig#getEnabledScripts()}
+     */
+    public List<String> getScripts(StealthConfig config) {
+        return get(config).getEnabledScripts();
+    }
+
+    /**
+     * Returns the bundled script for the given configuration, generating it on a miss.
+     *
+     * @param config Stealth configuration
+     * @return JavaScript code string, as {@link StealthConfig#getBundledScript()}
+     */
+    public String getBundledScript(StealthConfig config) {
+        return get(config).getBundledScript();
+    }
+
+    /**
+     * Removes all cached entries. Counters are kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() { return capacity; }
+
+    public long getHitCount() { return hits.sum(); }
+
+    public long getMissCount() { return misses.sum(); }
+
+    public long getEvictionCount() { return evictions.sum(); }
+}
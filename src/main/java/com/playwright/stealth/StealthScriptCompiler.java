@@ -0,0 +1,539 @@
+package com.playwright.stealth;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the stealth scripts into a smaller form: comments and redundant whitespace are
+ * stripped, and every {@code opts.<name>} read is replaced by the configured value, so no
+ * separate {@code const opts = ...} script has to be sent and parsed in every frame.
+ *
+ * <p>Primitive values are inlined at the use site. Arrays and objects are hoisted into a
+ * constant at the top of the evasion that reads them, so getters keep returning the same
+ * instance on every call, exactly like the uncompiled scripts. A read with a fallback,
+ * {@code opts.x || fallback}, is folded to the value when it is truthy and to the fallback
+ * when it is not, as long as the fallback is a single literal, name or call chain and the
+ * expression stands on its own.</p>
+ *
+ * <pre>{@code
+ * StealthScriptCompiler.Result result = StealthScriptCompiler.compile(config);
+ * System.out.println(result); // sizes before and after
+ * }</pre>
+ */
+public final class StealthScriptCompiler {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StealthScriptCompiler() {}
+
+    /**
+     * Compiles the scripts enabled by the given configuration.
+     *
+     * @param config Stealth configuration; its minify flag is ignored
+     * @return Compiled script list and bundle with their sizes before and after
+     */
+    public static Result compile(StealthConfig config) {
+        String optsJson = config.buildOptsJson();
+        JsonNode opts;
+        try {
+            opts = objectMapper.readTree(optsJson);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read stealth options", e);
+        }
+
+        Map<String, String> evasions = config.getEnabledEvasions();
+        String optsScript = "const opts = " + optsJson;
+
+        // Sizes of what would be sent without compilation
+        int originalScriptsSize = 0;
+        for (String script : StealthBundler.scripts(optsScript, StealthScripts.UTILS, StealthScripts.GENERATE_MAGIC_ARRAYS, evasions)) {
+            originalScriptsSize += utf8Length(script);
+        }
+        int originalBundleSize = utf8Length(StealthBundler.bundle(optsScript, evasions));
+
+        String utils = minify(StealthScripts.UTILS);
+        String magicArrays = minify(StealthScripts.GENERATE_MAGIC_ARRAYS);
+        Map<String, String> compiled = new LinkedHashMap<>();
+        boolean needsOpts = false;
+        for (Map.Entry<String, String> evasion : evasions.entrySet()) {
+            Folded folded = fold(evasion.getValue(), opts);
+            needsOpts |= folded.readsOpts;
+            compiled.put(evasion.getKey(), folded.code);
+        }
+
+        List<String> scripts = StealthBundler.scripts(needsOpts ? optsScript : null, utils, magicArrays, compiled);
+        String bundle = StealthBundler.bundle(needsOpts ? optsScript : null, utils, magicArrays, compiled);
+
+        int compiledScriptsSize = 0;
+        for (String script : scripts) {
+            compiledScriptsSize += utf8Length(script);
+        }
+
+        return new Result(Collections.unmodifiableList(scripts), bundle,
+            originalScriptsSize, compiledScriptsSize, originalBundleSize, utf8Length(bundle));
+    }
+
+    /**
+     * Strips comments and redundant whitespace from a script.
+     * Line breaks that automatic semicolon insertion may depend on are kept.
+     *
+     * @param script JavaScript source
+     * @return Minified JavaScript source
+     */
+    public static String minify(String script) {
+        return process(script, null).code;
+    }
+
+    static Folded fold(String script, JsonNode opts) {
+        return process(script, opts);
+    }
+
+    private static Folded process(String src, JsonNode opts) {
+        StringBuilder out = new StringBuilder(src.length());
+        Map<String, String> hoisted = new LinkedHashMap<>();
+        boolean readsOpts = false;
+        boolean pendingSpace = false;
+        boolean pendingNewline = false;
+        int n = src.length();
+        int i = 0;
+
+        while (i < n) {
+            char c = src.charAt(i);
+
+            // Whitespace is only remembered here and decided on when the next token arrives
+            if (Character.isWhitespace(c)) {
+                if (c == '\n' || c == '\r') {
+                    pendingNewline = true;
+                } else {
+                    pendingSpace = true;
+                }
+                i++;
+                continue;
+            }
+
+            if (c == '/' && i + 1 < n && src.charAt(i + 1) == '/') {
+                while (i < n && src.charAt(i) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            if (c == '/' && i + 1 < n && src.charAt(i + 1) == '*') {
+                int end = src.indexOf("*/", i + 2);
+                String comment = end < 0 ? src.substring(i) : src.substring(i, end + 2);
+                if (comment.indexOf('\n') >= 0) {
+                    pendingNewline = true;
+                } else {
+                    pendingSpace = true;
+                }
+                i = end < 0 ? n : end + 2;
+                continue;
+            }
+
+            int tokenEnd;
+            if (c == '\'' || c == '"') {
+                tokenEnd = skipString(src, i, c);
+            } else if (c == '`') {
+                tokenEnd = skipTemplate(src, i);
+            } else if (c == '/' && regexAllowed(out)) {
+                tokenEnd = skipRegex(src, i);
+            } else if (isWordChar(c)) {
+                tokenEnd = i;
+                while (tokenEnd < n && isWordChar(src.charAt(tokenEnd))) {
+                    tokenEnd++;
+                }
+            } else {
+                tokenEnd = i + 1;
+            }
+
+            emitSeparator(out, pendingNewline, pendingSpace, src, i);
+            pendingNewline = false;
+            pendingSpace = false;
+
+            if (opts != null && isOptsRead(src, i, tokenEnd, out)) {
+                int nameEnd = tokenEnd + 1;
+                while (nameEnd < n && isWordChar(src.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                String name = src.substring(tokenEnd + 1, nameEnd);
+                JsonNode value = opts.get(name);
+                int fallback = foldableFallback(src, nameEnd, out);
+                if (fallback < 0) {
+                    out.append(constant(name, value, hoisted));
+                    i = nameEnd;
+                } else if (truthy(value)) {
+                    // value || fallback is the value, drop the fallback
+                    out.append(constant(name, value, hoisted));
+                    i = expressionEnd(src, fallback);
+                } else {
+                    // Emit the fallback in place of the read, it may read options itself
+                    i = fallback;
+                }
+                continue;
+            }
+            if (opts != null && tokenEnd - i == 4 && src.startsWith("opts", i) && !afterDot(out)) {
+                // Any other use of opts, such as passing it around, still needs the declaration
+                readsOpts = true;
+            }
+
+            out.append(src, i, tokenEnd);
+            i = tokenEnd;
+        }
+
+        if (!hoisted.isEmpty()) {
+            StringBuilder prefix = new StringBuilder();
+            for (Map.Entry<String, String> constant : hoisted.entrySet()) {
+                prefix.append("const ").append(constant.getKey()).append('=').append(constant.getValue()).append(';');
+            }
+            out.insert(0, prefix);
+        }
+        return new Folded(out.toString(), readsOpts);
+    }
+
+    private static boolean isOptsRead(String src, int start, int end, StringBuilder out) {
+        return end - start == 4
+            && src.startsWith("opts", start)
+            && !afterDot(out)
+            && end + 1 < src.length()
+            && src.charAt(end) == '.'
+            && isWordChar(src.charAt(end + 1))
+            && !Character.isDigit(src.charAt(end + 1));
+    }
+
+    /**
+     * Returns where the fallback of {@code opts.x || fallback} starts if the read at {@code end}
+     * can be folded, or -1. The read has to start an expression, so no operator binding tighter
+     * than {@code ||} applies to it, and the fallback has to end one.
+     */
+    private static int foldableFallback(String src, int end, StringBuilder out) {
+        if (!startsExpression(out)) {
+            return -1;
+        }
+        int or = skipWhitespace(src, end);
+        if (!src.startsWith("||", or) || src.startsWith("||=", or)) {
+            return -1;
+        }
+        int fallback = skipWhitespace(src, or + 2);
+        int fallbackEnd = expressionEnd(src, fallback);
+        if (fallbackEnd < 0) {
+            return -1;
+        }
+        int next = skipWhitespace(src, fallbackEnd);
+        return next == src.length() || ")]},;".indexOf(src.charAt(next)) >= 0 ? fallback : -1;
+    }
+
+    private static boolean startsExpression(StringBuilder out) {
+        int last = out.length() - 1;
+        while (last >= 0 && Character.isWhitespace(out.charAt(last))) {
+            last--;
+        }
+        if (last < 0) {
+            return true;
+        }
+        char prev = out.charAt(last);
+        char beforePrev = last > 0 ? out.charAt(last - 1) : 0;
+        if (prev == '=') {
+            // Assignment, but not a comparison
+            return "=!<>".indexOf(beforePrev) < 0;
+        }
+        if (prev == '>') {
+            // Arrow function body
+            return beforePrev == '=';
+        }
+        int start = last + 1 - "return".length();
+        boolean afterReturn = start >= 0 && out.substring(start, last + 1).equals("return")
+            && (start == 0 || !isWordChar(out.charAt(start - 1)));
+        return "([,;{}:?".indexOf(prev) >= 0 || afterReturn;
+    }
+
+    /**
+     * Returns the end of the literal, name or member and call chain starting at {@code start}, or -1.
+     */
+    private static int expressionEnd(String src, int start) {
+        if (start >= src.length()) {
+            return -1;
+        }
+        char c = src.charAt(start);
+        int i;
+        if (c == '\'' || c == '"') {
+            i = skipString(src, start, c);
+        } else if (c == '`') {
+            i = skipTemplate(src, start);
+        } else if (c == '(' || c == '[' || c == '{') {
+            i = skipBalanced(src, start);
+        } else if (isWordChar(c)) {
+            i = start;
+            while (i < src.length() && isWordChar(src.charAt(i))) {
+                i++;
+            }
+        } else {
+            return -1;
+        }
+
+        while (i >= 0 && i < src.length()) {
+            int next = skipWhitespace(src, i);
+            if (next + 1 < src.length() && src.charAt(next) == '.' && isWordChar(src.charAt(next + 1))) {
+                i = next + 1;
+                while (i < src.length() && isWordChar(src.charAt(i))) {
+                    i++;
+                }
+            } else if (next < src.length() && (src.charAt(next) == '(' || src.charAt(next) == '[')) {
+                i = skipBalanced(src, next);
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Returns the end of the bracketed group starting at {@code start}, or -1 if it is not closed.
+     */
+    private static int skipBalanced(String src, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < src.length()) {
+            char c = src.charAt(i);
+            if (c == '\'' || c == '"') {
+                i = skipString(src, i, c);
+                continue;
+            }
+            if (c == '`') {
+                i = skipTemplate(src, i);
+                continue;
+            }
+            if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String src, int i) {
+        while (i < src.length() && Character.isWhitespace(src.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean truthy(JsonNode value) {
+        if (value == null || value.isMissingNode() || value.isNull()) {
+            return false;
+        }
+        if (value.isTextual()) {
+            return !value.textValue().isEmpty();
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        if (value.isNumber()) {
+            return value.doubleValue() != 0 && !Double.isNaN(value.doubleValue());
+        }
+        return true;
+    }
+
+    private static String constant(String name, JsonNode value, Map<String, String> hoisted) {
+        if (value == null || value.isMissingNode()) {
+            return "undefined";
+        }
+        if (value.isContainerNode()) {
+            String constName = "$opts_" + name;
+            hoisted.putIfAbsent(constName, value.toString());
+            return constName;
+        }
+        return value.toString();
+    }
+
+    private static void emitSeparator(StringBuilder out, boolean newline, boolean space, String src, int next) {
+        if (out.length() == 0 || !(newline || space)) {
+            return;
+        }
+        char prev = out.charAt(out.length() - 1);
+        char nextChar = src.charAt(next);
+
+        // Tokens that would merge if glued together
+        boolean merge = (isWordChar(prev) && isWordChar(nextChar))
+            || ((prev == '+' || prev == '-') && prev == nextChar)
+            || (prev == '/' && (nextChar == '/' || nextChar == '*'));
+
+        if (newline) {
+            // Keep the line break wherever automatic semicolon insertion could depend on it
+            boolean afterOperator = "{([,;:=?&|!<>*%^~+-".indexOf(prev) >= 0;
+            boolean beforeContinuation = ")]},;.:?=".indexOf(nextChar) >= 0
+                && !src.startsWith("++", next) && !src.startsWith("--", next);
+            if (merge || !(afterOperator || beforeContinuation)) {
+                out.append('\n');
+            }
+            return;
+        }
+        if (merge) {
+            out.append(' ');
+        }
+    }
+
+    private static boolean afterDot(StringBuilder out) {
+        return out.length() > 0 && out.charAt(out.length() - 1) == '.';
+    }
+
+    private static boolean regexAllowed(StringBuilder out) {
+        for (int i = out.length() - 1; i >= 0; i--) {
+            char c = out.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return "(,=:[!&|?{};+-*%<>~^".indexOf(c) >= 0 || endsWithKeyword(out, i + 1);
+            }
+        }
+        return true;
+    }
+
+    private static boolean endsWithKeyword(StringBuilder out, int end) {
+        for (String keyword : new String[] { "return", "typeof", "case", "in", "of", "void" }) {
+            int start = end - keyword.length();
+            if (start >= 0 && out.substring(start, end).equals(keyword)
+                && (start == 0 || !isWordChar(out.charAt(start - 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipString(String src, int start, char quote) {
+        int i = start + 1;
+        while (i < src.length()) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            i++;
+            if (c == quote) {
+                break;
+            }
+        }
+        return Math.min(i, src.length());
+    }
+
+    private static int skipTemplate(String src, int start) {
+        int i = start + 1;
+        while (i < src.length()) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '`') {
+                return i + 1;
+            } else if (c == '$' && i + 1 < src.length() && src.charAt(i + 1) == '{') {
+                // Substitutions are copied as-is, tracking nested braces and strings
+                int depth = 1;
+                i += 2;
+                while (i < src.length() && depth > 0) {
+                    char s = src.charAt(i);
+                    if (s == '\'' || s == '"') {
+                        i = skipString(src, i, s);
+                        continue;
+                    }
+                    if (s == '`') {
+                        i = skipTemplate(src, i);
+                        continue;
+                    }
+                    if (s == '{') depth++;
+                    if (s == '}') depth--;
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        return Math.min(i, src.length());
+    }
+
+    private static int skipRegex(String src, int start) {
+        int i = start + 1;
+        boolean inClass = false;
+        while (i < src.length()) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '\n') {
+                break;
+            }
+            i++;
+            if (c == '[') inClass = true;
+            else if (c == ']') inClass = false;
+            else if (c == '/' && !inClass) break;
+        }
+        while (i < src.length() && isWordChar(src.charAt(i))) {
+            i++;
+        }
+        return Math.min(i, src.length());
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c > 0x7f;
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    static final class Folded {
+        final String code;
+        final boolean readsOpts;
+
+        Folded(String code, boolean readsOpts) {
+            this.code = code;
+            this.readsOpts = readsOpts;
+        }
+    }
+
+    /**
+     * Output of a compilation, with UTF-8 sizes before and after.
+     */
+    public static final class Result {
+        private final List<String> scripts;
+        private final String bundle;
+        private final int originalScriptsSize;
+        private final int compiledScriptsSize;
+        private final int originalBundleSize;
+        private final int compiledBundleSize;
+
+        Result(List<String> scripts, String bundle, int originalScriptsSize, int compiledScriptsSize,
+               int originalBundleSize, int compiledBundleSize) {
+            this.scripts = scripts;
+            this.bundle = bundle;
+            this.originalScriptsSize = originalScriptsSize;
+            this.compiledScriptsSize = compiledScriptsSize;
+            this.originalBundleSize = originalBundleSize;
+            this.compiledBundleSize = compiledBundleSize;
+        }
+
+        /** Compiled scripts for one {@code addInitScript} call each. */
+        public List<String> getScripts() { return scripts; }
+
+        /** Compiled single-script bundle. */
+        public String getBundle() { return bundle; }
+
+        public int getOriginalScriptsSize() { return originalScriptsSize; }
+        public int getCompiledScriptsSize() { return compiledScriptsSize; }
+        public int getOriginalBundleSize() { return originalBundleSize; }
+        public int getCompiledBundleSize() { return compiledBundleSize; }
+
+        @Override
+        public String toString() {
+            return String.format("scripts: %d -> %d bytes (%.1f%%), bundle: %d -> %d bytes (%.1f%%)",
+                originalScriptsSize, compiledScriptsSize, 100.0 * compiledScriptsSize / originalScriptsSize,
+                originalBundleSize, compiledBundleSize, 100.0 * compiledBundleSize / originalBundleSize);
+        }
+    }
+}
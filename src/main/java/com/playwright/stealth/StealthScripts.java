@@ -219,8 +219,7 @@ public class StealthScripts {
         }
         """;
     
-    public static final String CHROME_RUNTIME = """
-        // Add chrome.runtime
+    private static final String CHROME_RUNTIME_DATA = """
         const STATIC_DATA = {
             "OnInstalledReason": {
                 "CHROME_UPDATE": "chrome_update",
@@ -262,6 +261,9 @@ public class StealthScripts {
                 "UPDATE_AVAILABLE": "update_available"
             }
         }
+        """;
+    
+    public static final String CHROME_RUNTIME = "// Add chrome.runtime\n" + CHROME_RUNTIME_DATA + """
         
         if (!window.chrome) {
             Object.defineProperty(window, 'chrome', {
@@ -332,8 +334,7 @@ public class StealthScripts {
         )
         """;
     
-    public static final String NAVIGATOR_PLUGINS = """
-        // Override navigator.plugins
+    private static final String PLUGIN_DATA = """
         const pluginData = [
             {
                 name: 'Chrome PDF Plugin',
@@ -367,6 +368,9 @@ public class StealthScripts {
             description: plugin.description,
             enabledPlugin: plugin.name
         }))
+        """;
+    
+    public static final String NAVIGATOR_PLUGINS = "// Override navigator.plugins\n" + PLUGIN_DATA + """
         
         const { arr: plugins } = generateMagicArray(pluginData, PluginArray.prototype, Plugin.prototype, 'name')
         const { arr: mimeTypes } = generateMagicArray(mimeTypeData, MimeTypeArray.prototype, MimeType.prototype, 'type')
@@ -395,4 +399,276 @@ public class StealthScripts {
             }
         } catch (err) {}
         """;
+    
+    /*
+     * Proxy-free variants, used when StealthConfig#isProxyFree() is set. Hooks are plain
+     * functions and accessors created with method and getter shorthand, so like native
+     * functions they have no prototype, and they call the original natives with call()
+     * instead of apply(this, arguments). A single Function.prototype.toString lookup table
+     * makes them print as native code.
+     */
+    
+    public static final String NATIVE_TO_STRING = """
+        // Native-looking toString for patched functions
+        const nativeToString = Function.prototype.toString
+        // Per realm: another realm's own toString still prints the hooks' source
+        const nativeSources = new WeakMap()
+        // Location of this script in stack frames, e.g. "<anonymous>" or a URL without line and column
+        const ownFrame = (new Error().stack || '').split('\\n')[1] || ''
+        const ownScript = (ownFrame.includes('(') ? ownFrame.slice(ownFrame.lastIndexOf('(') + 1) : ownFrame.trim().slice(3))
+            .split(':').slice(0, -2).join(':')
+        const patchedToString = {
+            toString() {
+                const source = nativeSources.get(this)
+                if (source !== undefined) {
+                    return source
+                }
+                try {
+                    return nativeToString.call(this)
+                } catch (err) {
+                    // Non-functions throw; drop this frame, right below the native one, so the stack matches
+                    const lines = err && typeof err.stack === 'string' ? err.stack.split('\\n') : []
+                    if (ownScript && lines.length > 2 && lines[2].includes(ownScript + ':')) {
+                        lines.splice(2, 1)
+                        err.stack = lines.join('\\n')
+                    }
+                    throw err
+                }
+            }
+        }.toString
+        nativeSources.set(patchedToString, nativeToString.call(nativeToString))
+        Function.prototype.toString = patchedToString
+        // The original is a native function to copy the source of, or the source itself
+        utils.makeNative = (fn, original) => {
+            nativeSources.set(fn, typeof original === 'string' ? original : nativeToString.call(original))
+            return fn
+        }
+        """;
+    
+    public static final String WEBDRIVER_PROXY_FREE = """
+        // Hide webdriver property with a plain getter
+        const navigatorProto = Object.getPrototypeOf(navigator)
+        const webdriverGetter = Object.getOwnPropertyDescriptor({
+            get webdriver() {
+                return false
+            }
+        }, 'webdriver').get
+        utils.makeNative(webdriverGetter, Object.getOwnPropertyDescriptor(navigatorProto, 'webdriver').get)
+        Object.defineProperty(navigatorProto, 'webdriver', {
+            get: webdriverGetter,
+            set: undefined,
+            enumerable: true,
+            configurable: true
+        })
+        """;
+    
+    public static final String WEBGL_VENDOR_PROXY_FREE = """
+        // Override WebGL vendor and renderer through a lookup table indexed from UNMASKED_VENDOR_WEBGL
+        const webglOverrides = [opts.webglVendor || 'Intel Inc.', opts.webglRenderer || 'Intel Iris OpenGL Engine']
+        const hookGetParameter = proto => {
+            const nativeGetParameter = proto.getParameter
+            proto.getParameter = utils.makeNative({
+                getParameter(parameter) {
+                    const index = parameter - 37445
+                    if (index === 0 || index === 1) {
+                        return webglOverrides[index]
+                    }
+                    return nativeGetParameter.call(this, parameter)
+                }
+            }.getParameter, nativeGetParameter)
+        }
+        hookGetParameter(WebGLRenderingContext.prototype)
+        hookGetParameter(WebGL2RenderingContext.prototype)
+        """;
+    
+    public static final String MEDIA_CODECS_PROXY_FREE = """
+        // Override media codec support through a lookup table
+        const codecAnswers = new Map([
+            ['video/ogg; codecs="theora"', ''],
+            ['video/mp4; codecs="avc1.42E01E"', 'probably'],
+            ['video/webm; codecs="vp8, vorbis"', 'probably']
+        ])
+        const nativeCanPlayType = HTMLMediaElement.prototype.canPlayType
+        HTMLMediaElement.prototype.canPlayType = utils.makeNative({
+            canPlayType(type) {
+                const answer = codecAnswers.get(type)
+                return answer === undefined ? nativeCanPlayType.call(this, type) : answer
+            }
+        }.canPlayType, nativeCanPlayType)
+        """;
+    
+    public static final String NAVIGATOR_PERMISSIONS_PROXY_FREE = """
+        // Override navigator.permissions with a native-looking method
+        const permissionsProto = Object.getPrototypeOf(navigator.permissions)
+        const nativeQuery = permissionsProto.query
+        permissionsProto.query = utils.makeNative({
+            query(parameters) {
+                return parameters && parameters.name === 'notifications'
+                    ? Promise.resolve({ state: Notification.permission })
+                    : nativeQuery.call(this, parameters)
+            }
+        }.query, nativeQuery)
+        """;
+    
+    /*
+     * Lazy variants, used when StealthConfig#isLazyEvasions() is set. They install cheap stubs
+     * and build the real objects on first access, so frames that never read them, such as
+     * most ad iframes, skip the cost.
+     */
+    
+    public static final String LAZY_PROPERTIES = """
+        // Properties built on first access. The stub turns itself into a plain data property in place,
+        // keeping the key order, or removes itself if building fails, which is what the eager evasion leaves behind.
+        utils.defineLazy = (obj, prop, build) => {
+            let building = false
+            const settle = value => Object.defineProperty(obj, prop, {
+                value,
+                writable: true,
+                enumerable: true,
+                configurable: true
+            })
+            const stub = Object.getOwnPropertyDescriptor({
+                get [prop]() {
+                    if (building) {
+                        // Reads from inside build see the property as not there yet
+                        return undefined
+                    }
+                    building = true
+                    let value
+                    try {
+                        value = build()
+                    } catch (err) {
+                        delete obj[prop]
+                        return undefined
+                    } finally {
+                        building = false
+                    }
+                    settle(value)
+                    return value
+                },
+                set [prop](value) {
+                    settle(value)
+                }
+            }, prop)
+            if (utils.makeNative) {
+                utils.makeNative(stub.get, 'function get ' + prop + '() { [native code] }')
+                utils.makeNative(stub.set, 'function set ' + prop + '() { [native code] }')
+            }
+            Object.defineProperty(obj, prop, {
+                get: stub.get,
+                set: stub.set,
+                enumerable: true,
+                configurable: true
+            })
+        }
+        """;
+    
+    public static final String CHROME_APP_LAZY = """
+        // Add chrome.app on first access
+        if (!window.chrome) {
+            Object.defineProperty(window, 'chrome', {
+                writable: true,
+                enumerable: true,
+                configurable: false,
+                value: {}
+            })
+        }
+        
+        if (!window.chrome.app) {
+            utils.defineLazy(window.chrome, 'app', () => ({
+                isInstalled: false,
+                InstallState: {
+                    DISABLED: 'disabled',
+                    INSTALLED: 'installed',
+                    NOT_INSTALLED: 'not_installed'
+                },
+                RunningState: {
+                    CANNOT_RUN: 'cannot_run',
+                    READY_TO_RUN: 'ready_to_run',
+                    RUNNING: 'running'
+                }
+            }))
+        }
+        """;
+    
+    public static final String CHROME_RUNTIME_LAZY = """
+        // Add chrome.runtime on first access
+        if (!window.chrome) {
+            Object.defineProperty(window, 'chrome', {
+                writable: true,
+                enumerable: true,
+                configurable: false,
+                value: {}
+            })
+        }
+        
+        const existsAlready = 'runtime' in window.chrome
+        const isNotSecure = !window.location.protocol.startsWith('https')
+        if (!(existsAlready || (isNotSecure && !opts.runOnInsecureOrigins))) {
+            utils.defineLazy(window.chrome, 'runtime', () => {
+        """ + CHROME_RUNTIME_DATA + """
+                return {
+                    ...STATIC_DATA,
+                    get id() {
+                        return undefined
+                    },
+                    connect: null,
+                    sendMessage: null
+                }
+            })
+        }
+        """;
+    
+    public static final String NAVIGATOR_PLUGINS_LAZY = """
+        // Override navigator.plugins, building the magic arrays on first access. The stubs are
+        // replaced in place by the same getters the eager evasion defines, or removed if building fails.
+        let settlingPlugins = false
+        const settlePlugins = () => {
+            settlingPlugins = true
+            try {
+        """ + PLUGIN_DATA + """
+                const { arr: plugins } = generateMagicArray(pluginData, PluginArray.prototype, Plugin.prototype, 'name')
+                const { arr: mimeTypes } = generateMagicArray(mimeTypeData, MimeTypeArray.prototype, MimeType.prototype, 'type')
+                Object.defineProperty(navigator, 'plugins', {
+                    get: () => plugins,
+                    configurable: false
+                })
+                Object.defineProperty(navigator, 'mimeTypes', {
+                    get: () => mimeTypes,
+                    configurable: false
+                })
+            } catch (err) {
+                delete navigator.plugins
+                delete navigator.mimeTypes
+            } finally {
+                settlingPlugins = false
+            }
+        }
+        
+        const pluginStubs = Object.getOwnPropertyDescriptors({
+            get plugins() {
+                if (settlingPlugins) {
+                    return undefined
+                }
+                settlePlugins()
+                return navigator.plugins
+            },
+            get mimeTypes() {
+                if (settlingPlugins) {
+                    return undefined
+                }
+                settlePlugins()
+                return navigator.mimeTypes
+            }
+        })
+        for (const name of ['plugins', 'mimeTypes']) {
+            if (utils.makeNative) {
+                utils.makeNative(pluginStubs[name].get, 'function get ' + name + '() { [native code] }')
+            }
+            Object.defineProperty(navigator, name, {
+                get: pluginStubs[name].get,
+                configurable: true
+            })
+        }
+        """;
 }
@@ -0,0 +1,426 @@
+package com.playwright.stealth;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Saves and restores browser sessions per profile, so a new stealth context can start with the
+ * cookies and local storage of an earlier run instead of repeating login and consent flows.
+ * Every session stores the {@link StealthConfig} it was created with, so the restored context
+ * presents the same fingerprint that the cookies were issued to.
+ *
+ * <pre>{@code
+ * StealthSessionStore sessions = StealthSessionStore.builder(Paths.get("sessions")).build();
+ * BrowserContext context = sessions.newContext(browser, "profile-42", config);
+ * ...
+ * sessions.save("profile-42", context, config);   // returns immediately
+ * ...
+ * sessions.close();                               // waits for pending writes
+ * }</pre>
+ *
+ * <p>{@link #save} captures {@link BrowserContext#storageState()} on the calling thread, which
+ * must own the context, and hands compression and the disk write to a background writer.
+ * Each session is one gzip file; a small JSON index lists the profiles with their save time
+ * and config fingerprint. Instances are thread-safe.</p>
+ */
+public final class StealthSessionStore implements AutoCloseable {
+
+    static final String INDEX_FILE = "index.json";
+    private static final int MAGIC = 0x53535331;
+    private static final int VERSION = 1;
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Path directory;
+    private final ExecutorService writer;
+    private final boolean ownsWriter;
+
+    // Sessions saved but not yet written, so loads see their own writes
+    private final Map<String, Session> pending = new ConcurrentHashMap<>();
+    // Guarded by itself
+    private final Map<String, IndexEntry> index;
+
+    private StealthSessionStore(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        Files.createDirectories(directory);
+        this.ownsWriter = builder.writer == null;
+        this.writer = ownsWriter ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stealth-session-writer");
+            thread.setDaemon(true);
+            return thread;
+        }) : builder.writer;
+        this.index = loadIndex();
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Creates a stealthed context for a profile, restoring its saved session if there is one.
+     * A restored session brings its own configuration; otherwise the given one is used.
+     *
+     * @param browser Browser to create the context in
+     * @param profileId Profile identifier
+     * @param config Configuration for profiles without a saved session, or null for the default
+     * @return New context with stealth applied
+     */
+    public BrowserContext newContext(Browser browser, String profileId, StealthConfig config) {
+        return newContext(browser, profileId, config, null);
+    }
+
+    /**
+     * Creates a stealthed context for a profile, restoring its saved session if there is one.
+     * The user agent and locale are taken from the configuration unless the options set them.
+     * The options are copied, so one instance can be reused for any number of profiles.
+     *
+     * @param browser Browser to create the context in
+     * @param profileId Profile identifier
+     * @param config Configuration for profiles without a saved session, or null for the default
+     * @param options Context options, or null
+     * @return New context with stealth applied
+     */
+    public BrowserContext newContext(Browser browser, String profileId, StealthConfig config, Browser.NewContextOptions options) {
+        if (browser == null) {
+            throw new IllegalArgumentException("Browser cannot be null");
+        }
+        Browser.NewContextOptions contextOptions = copy(options);
+        StealthConfig effective = config == null ? new StealthConfig() : config;
+
+        Optional<Session> session = load(profileId);
+        if (session.isPresent()) {
+            effective = session.get().getConfig();
+            contextOptions.setStorageState(session.get().getStorageState());
+        }
+        if (contextOptions.userAgent == null && effective.getNavUserAgent() != null) {
+            contextOptions.setUserAgent(effective.getNavUserAgent());
+        }
+        if (contextOptions.locale == null && effective.getLanguages() != null && !effective.getLanguages().isEmpty()) {
+            contextOptions.setLocale(effective.getLanguages().get(0));
+        }
+
+        BrowserContext context = browser.newContext(contextOptions);
+        Stealth.stealthContext(context, effective);
+        return context;
+    }
+
+    /**
+     * Copies every option field, since Playwright's option classes have no copy constructor.
+     */
+    static Browser.NewContextOptions copy(Browser.NewContextOptions options) {
+        Browser.NewContextOptions copy = new Browser.NewContextOptions();
+        if (options == null) {
+            return copy;
+        }
+        for (Field field : Browser.NewContextOptions.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                continue;
+            }
+            try {
+                field.set(copy, field.get(options));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot copy context option " + field.getName(), e);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Saves a context's session for a profile. The storage state is captured before this method
+     * returns; compressing and writing it happens in the background.
+     *
+     * @param profileId Profile identifier
+     * @param context Context to save, used on the calling thread only
+     * @param config Configuration the context was stealthed with, or null for the default
+     * @return Future that completes when the session is on disk
+     */
+    public CompletableFuture<Void> save(String profileId, BrowserContext context, StealthConfig config) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context cannot be null");
+        }
+        return save(profileId, context.storageState(), config);
+    }
+
+    /**
+     * Saves a captured storage state for a profile in the background.
+     *
+     * @param profileId Profile identifier
+     * @param storageState Result of {@link BrowserContext#storageState()}
+     * @param config Configuration the context was stealthed with, or null for the default
+     * @return Future that completes when the session is on disk
+     */
+    public CompletableFuture<Void> save(String profileId, String storageState, StealthConfig config) {
+        checkProfileId(profileId);
+        if (storageState == null) {
+            throw new IllegalArgumentException("Storage state cannot be null");
+        }
+        Session session = new Session(profileId, (config == null ? new StealthConfig() : config).snapshot(),
+            storageState, System.currentTimeMillis());
+        pending.put(profileId, session);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(session);
+            } finally {
+                pending.remove(profileId, session);
+            }
+        }, writer);
+    }
+
+    /**
+     * Loads a profile's saved session.
+     *
+     * @param profileId Profile identifier
+     * @return The session, or empty if none was saved
+     */
+    public Optional<Session> load(String profileId) {
+        checkProfileId(profileId);
+        Session session = pending.get(profileId);
+        if (session != null) {
+            return Optional.of(session);
+        }
+        Path path = directory.resolve(fileName(profileId));
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a session file: " + path);
+            }
+            long savedAt = in.readLong();
+            String id = in.readUTF();
+            StealthConfig config = objectMapper.readValue(readString(in), StealthConfig.class);
+            String storageState = readString(in);
+            return Optional.of(new Session(id, config.snapshot(), storageState, savedAt));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load session " + profileId, e);
+        }
+    }
+
+    /**
+     * Deletes a profile's saved session.
+     *
+     * @param profileId Profile identifier
+     * @return Future that completes when the session is deleted
+     */
+    public CompletableFuture<Void> delete(String profileId) {
+        checkProfileId(profileId);
+        pending.remove(profileId);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Files.deleteIfExists(directory.resolve(fileName(profileId)));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete session " + profileId, e);
+            }
+            synchronized (index) {
+                index.remove(profileId);
+                writeIndex();
+            }
+        }, writer);
+    }
+
+    /**
+     * Lists the saved profiles with their save time and config fingerprint, without reading the sessions.
+     *
+     * @return Index entries keyed by profile identifier
+     */
+    public Map<String, IndexEntry> index() {
+        synchronized (index) {
+            return Collections.unmodifiableMap(new TreeMap<>(index));
+        }
+    }
+
+    /**
+     * Waits for pending writes and stops the background writer if this store created it.
+     */
+    @Override
+    public void close() {
+        CompletableFuture.runAsync(() -> {}, writer).join();
+        if (ownsWriter) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void write(Session session) {
+        Path path = directory.resolve(fileName(session.getProfileId()));
+        try {
+            Path temp = Files.createTempFile(directory, "session", ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(file)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(session.getSavedAt());
+                out.writeUTF(session.getProfileId());
+                writeString(out, objectMapper.writeValueAsString(session.getConfig()));
+                writeString(out, session.getStorageState());
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            IndexEntry entry = new IndexEntry();
+            entry.file = path.getFileName().toString();
+            entry.savedAt = session.getSavedAt();
+            entry.fingerprint = session.getConfig().fingerprint();
+            entry.size = Files.size(path);
+            synchronized (index) {
+                index.put(session.getProfileId(), entry);
+                writeIndex();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save session " + session.getProfileId(), e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Map<String, IndexEntry> loadIndex() {
+        Path path = directory.resolve(INDEX_FILE);
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                return objectMapper.readValue(in, new TypeReference<TreeMap<String, IndexEntry>>() {});
+            } catch (IOException e) {
+                // The sessions themselves are intact, only the listing is lost
+            }
+        }
+        return new TreeMap<>();
+    }
+
+    private void writeIndex() {
+        try {
+            Path temp = Files.createTempFile(directory, "index", ".tmp");
+            objectMapper.writeValue(temp.toFile(), index);
+            Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write session index", e);
+        }
+    }
+
+    static String fileName(String profileId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(profileId.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(36);
+            for (int i = 0; i < 16; i++) {
+                name.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return name.append(".session").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    private static void checkProfileId(String profileId) {
+        if (profileId == null || profileId.isEmpty()) {
+            throw new IllegalArgumentException("Profile id cannot be empty");
+        }
+    }
+
+    /**
+     * A saved session: the storage state and the frozen configuration it belongs to.
+     */
+    public static final class Session {
+        private final String profileId;
+        private final StealthSnapshot config;
+        private final String storageState;
+        private final long savedAt;
+
+        Session(String profileId, StealthSnapshot config, String storageState, long savedAt) {
+            this.profileId = profileId;
+            this.config = config;
+            this.storageState = storageState;
+            this.savedAt = savedAt;
+        }
+
+        public String getProfileId() { return profileId; }
+        public StealthSnapshot getConfig() { return config; }
+
+        /** Storage state JSON, as accepted by {@link Browser.NewContextOptions#setStorageState(String)}. */
+        public String getStorageState() { return storageState; }
+
+        /** Save time in epoch milliseconds. */
+        public long getSavedAt() { return savedAt; }
+    }
+
+    /**
+     * Index entry of a saved session.
+     */
+    public static final class IndexEntry {
+        public String file;
+        public long savedAt;
+        public long fingerprint;
+        public long size;
+    }
+
+    /**
+     * Builder for {@link StealthSessionStore}.
+     */
+    public static class Builder {
+        private final Path directory;
+        private ExecutorService writer;
+
+        private Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory cannot be null");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * Sets the executor that writes sessions. Defaults to a single daemon thread owned by the store.
+         * Saves of the same profile are only guaranteed to land in order on a single-threaded executor.
+         */
+        public Builder writer(ExecutorService writer) {
+            this.writer = writer;
+            return this;
+        }
+
+        public StealthSessionStore build() {
+            try {
+                return new StealthSessionStore(this);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open session store in " + directory, e);
+            }
+        }
+    }
+}
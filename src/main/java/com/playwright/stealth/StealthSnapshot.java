@@ -0,0 +1,118 @@
+package com.playwright.stealth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, thread-safe snapshot of a {@link StealthConfig}.
+ * The script list, bundle, JSON options and fingerprint are computed once when the snapshot
+ * is created, so one instance can be shared by any number of threads and applied to pages
+ * without further allocation. Snapshots are {@linkplain #isFrozen() frozen}: every setter throws
+ * {@link UnsupportedOperationException}, and the precomputed output can never go stale.
+ *
+ * <p>Create snapshots with {@link StealthConfig#snapshot()} or
+ * {@link Stealth.StealthConfigBuilder#snapshot()}.</p>
+ */
+public final class StealthSnapshot extends StealthConfig {
+    
+    private final long fingerprint;
+    private final String optsJson;
+    private final Map<String, String> enabledEvasions;
+    private final List<String> enabledScripts;
+    private final String bundledScript;
+    private final int scriptsSize;
+    private final int bundledScriptSize;
+    
+    /**
+     * Creates a snapshot of the given configuration.
+     * @param source Configuration to freeze
+     * @return The source itself if it already is a snapshot, otherwise a new snapshot
+     */
+    static StealthSnapshot of(StealthConfig source) {
+        if (source instanceof StealthSnapshot) {
+            return (StealthSnapshot) source;
+        }
+        // Work from a private copy so concurrent changes to the source cannot tear the snapshot,
+        // and compute the output from it since the snapshot's own overrides are not set up yet
+        return new StealthSnapshot(new StealthConfig(source));
+    }
+    
+    private StealthSnapshot(StealthConfig source) {
+        super(source, true);
+        
+        this.fingerprint = source.fingerprint();
+        this.optsJson = source.buildOptsJson();
+        this.enabledEvasions = Collections.unmodifiableMap(new LinkedHashMap<>(source.getEnabledEvasions()));
+        if (source.isMinifyScripts()) {
+            // One compilation yields both outputs
+            StealthScriptCompiler.Result compiled = StealthScriptCompiler.compile(source);
+            this.enabledScripts = compiled.getScripts();
+            this.bundledScript = compiled.getBundle();
+        } else {
+            this.enabledScripts = Collections.unmodifiableList(source.getEnabledScripts());
+            this.bundledScript = source.getBundledScript();
+        }
+        
+        int size = 0;
+        for (String script : enabledScripts) {
+            size += utf8Length(script);
+        }
+        this.scriptsSize = size;
+        this.bundledScriptSize = utf8Length(bundledScript);
+    }
+    
+    /**
+     * Returns the JSON serialized options object the scripts read from.
+     * @return JSON string
+     */
+    public String optsJson() {
+        return optsJson;
+    }
+    
+    @Override
+    public long fingerprint() {
+        return fingerprint;
+    }
+    
+    @Override
+    public List<String> getEnabledScripts() {
+        return enabledScripts;
+    }
+    
+    @Override
+    public String getBundledScript() {
+        return bundledScript;
+    }
+    
+    @Override
+    public StealthSnapshot snapshot() {
+        return this;
+    }
+    
+    /** UTF-8 size of all scripts in {@link #getEnabledScripts()}. */
+    int getScriptsSize() {
+        return scriptsSize;
+    }
+    
+    /** UTF-8 size of {@link #getBundledScript()}. */
+    int getBundledScriptSize() {
+        return bundledScriptSize;
+    }
+    
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+    
+    @Override
+    Map<String, String> getEnabledEvasions() {
+        return enabledEvasions;
+    }
+    
+    @Override
+    String buildOptsJson() {
+        return optsJson;
+    }
+}
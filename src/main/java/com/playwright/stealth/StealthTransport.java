@@ -0,0 +1,20 @@
+package com.playwright.stealth;
+
+/**
+ * How {@link Stealth#stealth(com.microsoft.playwright.Page, StealthConfig)} registers scripts on a page.
+ */
+public enum StealthTransport {
+
+    /**
+     * Registers scripts through Playwright's {@code Page.addInitScript}. Works in every browser
+     * but only affects documents created after the call.
+     */
+    INIT_SCRIPT,
+
+    /**
+     * On Chromium, registers the whole bundle with one {@code Page.addScriptToEvaluateOnNewDocument}
+     * call on a dedicated CDP session and also runs it on the current document, so pages that are
+     * already open are stealthed without a reload. Falls back to {@link #INIT_SCRIPT} on Firefox and WebKit.
+     */
+    CDP
+}
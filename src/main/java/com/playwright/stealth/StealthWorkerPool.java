@@ -0,0 +1,471 @@
+package com.playwright.stealth;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Runs page tasks on N independent {@code Playwright} + {@code Browser} pairs, each owned by
+ * its own dedicated thread, so one JVM can drive as many browsers as it has cores.
+ *
+ * <p>Submitted tasks go into a shared bounded queue. A worker takes a small batch into its own
+ * local queue at a time to keep contention on the shared queue low, and idle workers steal
+ * from the tail of busy workers' local queues, so a long-running task never strands the ones
+ * batched behind it. Every task gets a page from the worker's {@link StealthContextPool}, with
+ * the configured stealth already applied. A worker runs one task at a time, so it keeps a single
+ * context; add workers for more concurrency.</p>
+ *
+ * <p>Whatever a task throws, including errors such as {@link AssertionError}, completes its
+ * future exceptionally. A worker whose browser disconnected, for example because it crashed,
+ * relaunches it before running its next task. Errors that leave a thread unusable, such as
+ * {@link OutOfMemoryError}, are rethrown after failing the task, and the worker continues on a
+ * new thread with a new browser.</p>
+ *
+ * <pre>{@code
+ * try (StealthWorkerPool pool = StealthWorkerPool.builder()
+ *         .workers(32)
+ *         .config(snapshot)
+ *         .build()) {
+ *     CompletableFuture<String> title = pool.submit(page -> {
+ *         page.navigate("https://example.com");
+ *         return page.title();
+ *     });
+ * }
+ * }</pre>
+ */
+public class StealthWorkerPool implements AutoCloseable {
+
+    /**
+     * A unit of work run on a worker thread against a stealthed page.
+     * The page belongs to the worker and must not escape the task.
+     *
+     * @param <T> Result type
+     */
+    @FunctionalInterface
+    public interface PageTask<T> {
+        T run(Page page) throws Exception;
+    }
+
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private final BlockingQueue<Task<?>> shared;
+    private final Worker[] workers;
+    private final int batchSize;
+    private volatile boolean shutdown;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder stolen = new LongAdder();
+    private final LongAdder relaunches = new LongAdder();
+    private final LongAdder restarts = new LongAdder();
+
+    private StealthWorkerPool(Builder builder) {
+        this.shared = new LinkedBlockingQueue<>(builder.queueCapacity);
+        this.batchSize = builder.batchSize;
+        this.workers = new Worker[builder.workers];
+
+        CountDownLatch started = new CountDownLatch(workers.length);
+        AtomicReference<RuntimeException> startFailure = new AtomicReference<>();
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i, builder, started, startFailure);
+        }
+        // Start only once the array is complete, since workers scan each other's queues
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while starting workers", e);
+        }
+        if (startFailure.get() != null) {
+            close();
+            throw startFailure.get();
+        }
+    }
+
+    /**
+     * Creates a builder for a worker pool.
+     *
+     * @return A new Builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Queues a task, blocking while the shared queue is full.
+     *
+     * @param task Task to run against a stealthed page
+     * @return Future completed with the task's result on its worker thread
+     * @throws IllegalStateException if the pool is shut down
+     */
+    public <T> CompletableFuture<T> submit(PageTask<T> task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task cannot be null");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Worker pool is shut down");
+        }
+
+        Task<T> queued = new Task<>(task);
+        try {
+            shared.put(queued);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing task", e);
+        }
+        submitted.increment();
+        return queued.future;
+    }
+
+    public int getWorkerCount() { return workers.length; }
+
+    public long getSubmittedCount() { return submitted.sum(); }
+
+    public long getCompletedCount() { return completed.sum(); }
+
+    public long getFailedCount() { return failed.sum(); }
+
+    /** Number of tasks a worker took from another worker's local queue. */
+    public long getStolenCount() { return stolen.sum(); }
+
+    /** Number of times a worker relaunched its browser after it disconnected. */
+    public long getRelaunchCount() { return relaunches.sum(); }
+
+    /** Number of times a worker thread was replaced after a fatal error such as {@link OutOfMemoryError}. */
+    public long getRestartCount() { return restarts.sum(); }
+
+    /** Number of tasks waiting in the shared and local queues. */
+    public int getPendingCount() {
+        int pending = shared.size();
+        for (Worker worker : workers) {
+            pending += worker.local.size();
+        }
+        return pending;
+    }
+
+    /**
+     * Stops accepting tasks, lets the workers finish every queued task, then closes
+     * all browsers and Playwright instances.
+     */
+    @Override
+    public void close() {
+        shutdown = true;
+        boolean interrupted = false;
+        for (Worker worker : workers) {
+            // A worker restarting after a fatal error hands over to a new thread before its old one ends
+            Thread thread = worker.thread;
+            while (thread.isAlive() || thread != worker.thread) {
+                thread = worker.thread;
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        // A submit racing with close() may have queued after the workers drained
+        Task<?> task;
+        while ((task = shared.poll()) != null) {
+            task.future.completeExceptionally(new IllegalStateException("Worker pool is shut down"));
+        }
+    }
+
+    private Task<?> next(Worker self) throws InterruptedException {
+        Task<?> task = self.local.pollFirst();
+        if (task != null) {
+            return task;
+        }
+
+        // Refill the local queue with a batch from the shared queue
+        task = shared.poll();
+        if (task != null) {
+            if (batchSize > 1) {
+                List<Task<?>> batch = new ArrayList<>(batchSize - 1);
+                shared.drainTo(batch, batchSize - 1);
+                self.local.addAll(batch);
+            }
+            return task;
+        }
+
+        // Steal from the tail of another worker's local queue
+        for (int i = 1; i < workers.length; i++) {
+            Worker victim = workers[(self.index + i) % workers.length];
+            task = victim.local.pollLast();
+            if (task != null) {
+                stolen.increment();
+                return task;
+            }
+        }
+
+        return shared.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean drained() {
+        if (!shared.isEmpty()) {
+            return false;
+        }
+        for (Worker worker : workers) {
+            if (!worker.local.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Task<T> {
+        final PageTask<T> body;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(PageTask<T> body) {
+            this.body = body;
+        }
+
+        void run(Page page) throws Exception {
+            future.complete(body.run(page));
+        }
+    }
+
+    private final class Worker implements Runnable {
+        final int index;
+        final LinkedBlockingDeque<Task<?>> local = new LinkedBlockingDeque<>();
+        // Replaced when the worker restarts after a fatal error
+        volatile Thread thread;
+        private final Builder builder;
+        private final CountDownLatch started;
+        private final AtomicReference<RuntimeException> startFailure;
+        private boolean restarted;
+
+        // Confined to the worker thread
+        private Playwright playwright;
+        private Browser browser;
+        private StealthContextPool contexts;
+
+        Worker(int index, Builder builder, CountDownLatch started, AtomicReference<RuntimeException> startFailure) {
+            this.index = index;
+            this.builder = builder;
+            this.started = started;
+            this.startFailure = startFailure;
+            this.thread = new Thread(this, "stealth-worker-" + index);
+        }
+
+        @Override
+        public void run() {
+            try {
+                playwright = Playwright.create();
+                launch();
+            } catch (RuntimeException e) {
+                shutDownBrowser();
+                if (restarted) {
+                    // Other workers keep serving the shared queue, but nobody would run these
+                    Task<?> task;
+                    while ((task = local.pollFirst()) != null) {
+                        failed.increment();
+                        task.future.completeExceptionally(e);
+                    }
+                } else {
+                    startFailure.compareAndSet(null, e);
+                    started.countDown();
+                }
+                return;
+            }
+            if (!restarted) {
+                started.countDown();
+            }
+
+            Error fatal = null;
+            try {
+                while (!(shutdown && drained())) {
+                    Task<?> task;
+                    try {
+                        task = next(this);
+                    } catch (InterruptedException e) {
+                        // Only close() stops a worker; keep draining
+                        continue;
+                    }
+                    if (task != null) {
+                        execute(task);
+                    }
+                }
+            } catch (Error e) {
+                fatal = e;
+            } finally {
+                shutDownBrowser();
+            }
+
+            if (fatal != null) {
+                // Replace this thread before it dies, so close() joins the replacement
+                if (!(shutdown && drained())) {
+                    restarted = true;
+                    restarts.increment();
+                    thread = new Thread(this, "stealth-worker-" + index);
+                    thread.start();
+                }
+                throw fatal;
+            }
+        }
+
+        private void execute(Task<?> task) {
+            try {
+                if (!browser.isConnected()) {
+                    // The browser crashed or was killed, and every later task would fail on it
+                    relaunches.increment();
+                    contexts.close();
+                    closeQuietly(browser);
+                    launch();
+                }
+                // The worker's pool is only used by this thread and each lease is returned before the next
+                try (StealthContextPool.Lease lease = contexts.lease()) {
+                    task.run(lease.page());
+                }
+                completed.increment();
+            } catch (Throwable t) {
+                failed.increment();
+                task.future.completeExceptionally(t);
+                // A stack overflow has unwound by now, anything else of this kind leaves the thread unusable
+                if (t instanceof VirtualMachineError && !(t instanceof StackOverflowError)) {
+                    throw (Error) t;
+                }
+            }
+        }
+
+        private void launch() {
+            Browser launched = builder.browserType.apply(playwright).launch(builder.launchOptions);
+            try {
+                contexts = StealthContextPool.builder(launched)
+                    .config(builder.config)
+                    .contextOptions(builder.contextOptions)
+                    .warmSize(1)
+                    .maxSize(1)
+                    .maxUses(builder.maxUsesPerContext)
+                    .maxIdleTime(null)
+                    .build();
+            } catch (RuntimeException e) {
+                closeQuietly(launched);
+                throw e;
+            }
+            browser = launched;
+        }
+
+        private void shutDownBrowser() {
+            if (contexts != null) {
+                contexts.close();
+            }
+            if (browser != null) {
+                closeQuietly(browser);
+            }
+            if (playwright != null) {
+                try {
+                    playwright.close();
+                } catch (RuntimeException ignored) {
+                    // The driver may already be gone
+                }
+            }
+            contexts = null;
+            browser = null;
+            playwright = null;
+        }
+
+        private void closeQuietly(Browser closing) {
+            try {
+                closing.close();
+            } catch (RuntimeException ignored) {
+                // Closing a crashed browser can fail
+            }
+        }
+    }
+
+    /**
+     * Builder class for creating StealthWorkerPool instances with fluent API.
+     */
+    public static class Builder {
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 1024;
+        private int batchSize = 4;
+        private int maxUsesPerContext = 100;
+        private StealthConfig config = new StealthConfig();
+        private Function<Playwright, BrowserType> browserType = Playwright::chromium;
+        private BrowserType.LaunchOptions launchOptions = new BrowserType.LaunchOptions().setHeadless(true);
+        private Browser.NewContextOptions contextOptions;
+
+        private Builder() {}
+
+        /** Number of worker threads, each with its own Playwright and Browser. */
+        public Builder workers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /** Capacity of the shared task queue; {@link #submit} blocks while it is full. */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /** Number of tasks a worker takes from the shared queue at a time. */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder maxUsesPerContext(int maxUsesPerContext) {
+            this.maxUsesPerContext = maxUsesPerContext;
+            return this;
+        }
+
+        public Builder config(StealthConfig config) {
+            this.config = config == null ? new StealthConfig() : config;
+            return this;
+        }
+
+        public Builder browserType(Function<Playwright, BrowserType> browserType) {
+            this.browserType = browserType;
+            return this;
+        }
+
+        public Builder launchOptions(BrowserType.LaunchOptions launchOptions) {
+            this.launchOptions = launchOptions;
+            return this;
+        }
+
+        public Builder contextOptions(Browser.NewContextOptions contextOptions) {
+            this.contextOptions = contextOptions;
+            return this;
+        }
+
+        /**
+         * Starts the workers and waits until every browser is launched.
+         *
+         * @return A running worker pool
+         */
+        public StealthWorkerPool build() {
+            if (workers <= 0 || queueCapacity <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Worker count, queue capacity and batch size must be positive");
+            }
+            // Share one precomputed snapshot across all worker threads
+            config = config.snapshot();
+            return new StealthWorkerPool(this);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.playwright.stealth;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compiled URL matcher: a character trie over reversed domains for suffix matches on the host,
+ * and an Aho-Corasick automaton for substring matches on the whole URL. Both share one
+ * open-addressing transition table keyed by (state, char), so matching walks the URL once
+ * with a hash probe per character and allocates nothing. ASCII letters match case-insensitively.
+ */
+final class UrlMatcher {
+
+    private final Transitions domainTransitions;
+    private final boolean[] domainTerminal;
+
+    private final Transitions patternTransitions;
+    private final int[] patternFail;
+    private final boolean[] patternOutput;
+
+    UrlMatcher(Collection<String> domains, Collection<String> patterns) {
+        // Domain trie over reversed, lowercased domains
+        Transitions domainTrie = new Transitions(domains.size() * 16);
+        IntArray terminals = new IntArray();
+        int domainStates = 1;
+        for (String domain : domains) {
+            int state = 0;
+            for (int i = domain.length() - 1; i >= 0; i--) {
+                char c = lower(domain.charAt(i));
+                int next = domainTrie.get(state, c);
+                if (next < 0) {
+                    next = domainStates++;
+                    domainTrie.put(state, c, next);
+                }
+                state = next;
+            }
+            if (state != 0) {
+                terminals.add(state);
+            }
+        }
+        this.domainTransitions = domainTrie;
+        this.domainTerminal = new boolean[domainStates];
+        for (int i = 0; i < terminals.size; i++) {
+            domainTerminal[terminals.values[i]] = true;
+        }
+
+        // Aho-Corasick goto function, remembering each state's children for the breadth-first pass
+        Transitions patternTrie = new Transitions(patterns.size() * 16);
+        IntArray firstChild = new IntArray();
+        IntArray nextSibling = new IntArray();
+        IntArray label = new IntArray();
+        IntArray outputs = new IntArray();
+        firstChild.add(-1);
+        nextSibling.add(-1);
+        label.add(0);
+        for (String pattern : patterns) {
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = lower(pattern.charAt(i));
+                int next = patternTrie.get(state, c);
+                if (next < 0) {
+                    next = firstChild.size;
+                    patternTrie.put(state, c, next);
+                    firstChild.add(-1);
+                    nextSibling.add(firstChild.values[state]);
+                    label.add(c);
+                    firstChild.values[state] = next;
+                }
+                state = next;
+            }
+            if (state != 0) {
+                outputs.add(state);
+            }
+        }
+
+        int states = firstChild.size;
+        int[] fail = new int[states];
+        boolean[] output = new boolean[states];
+        for (int i = 0; i < outputs.size; i++) {
+            output[outputs.values[i]] = true;
+        }
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int child = firstChild.values[0]; child >= 0; child = nextSibling.values[child]) {
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            for (int child = firstChild.values[state]; child >= 0; child = nextSibling.values[child]) {
+                char c = (char) label.values[child];
+                int f = fail[state];
+                while (f != 0 && patternTrie.get(f, c) < 0) {
+                    f = fail[f];
+                }
+                int target = patternTrie.get(f, c);
+                fail[child] = target < 0 ? 0 : target;
+                output[child] |= output[fail[child]];
+                queue[tail++] = child;
+            }
+        }
+        this.patternTransitions = patternTrie;
+        this.patternFail = fail;
+        this.patternOutput = output;
+    }
+
+    /**
+     * Returns true if the URL's host is one of the domains or a subdomain of one.
+     */
+    boolean matchesDomain(String url) {
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return false;
+        }
+        start += 3;
+        int end = start;
+        int length = url.length();
+        while (end < length) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            if (c == '@') {
+                start = end + 1;
+            }
+            end++;
+        }
+        // Strip the port
+        for (int i = end - 1; i >= start; i--) {
+            char c = url.charAt(i);
+            if (c == ':') {
+                end = i;
+                break;
+            }
+            if (c < '0' || c > '9') {
+                break;
+            }
+        }
+
+        int state = 0;
+        for (int i = end - 1; i >= start; i--) {
+            state = domainTransitions.get(state, lower(url.charAt(i)));
+            if (state < 0) {
+                return false;
+            }
+            if (domainTerminal[state] && (i == start || url.charAt(i - 1) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if any pattern occurs anywhere in the URL.
+     */
+    boolean matchesPattern(String url) {
+        int state = 0;
+        for (int i = 0, length = url.length(); i < length; i++) {
+            char c = lower(url.charAt(i));
+            int next = patternTransitions.get(state, c);
+            while (next < 0 && state != 0) {
+                state = patternFail[state];
+                next = patternTransitions.get(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            if (patternOutput[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int getDomainStates() {
+        return domainTerminal.length;
+    }
+
+    int getPatternStates() {
+        return patternOutput.length;
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    /**
+     * Open-addressing hash map from (state, char) to the next state, in two primitive arrays.
+     */
+    static final class Transitions {
+        private long[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        Transitions(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, -1L);
+            mask = capacity - 1;
+        }
+
+        int get(int state, char c) {
+            long key = ((long) state << 16) | c;
+            int i = slot(key);
+            while (true) {
+                long k = keys[i];
+                if (k == key) {
+                    return values[i];
+                }
+                if (k == -1L) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        void put(int state, char c, int next) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            long key = ((long) state << 16) | c;
+            int i = slot(key);
+            while (keys[i] != -1L && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == -1L) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = next;
+        }
+
+        private int slot(long key) {
+            return (int) ((key * 0x9e3779b97f4a7c15L) >>> 32) & mask;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            Arrays.fill(keys, -1L);
+            mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1L) {
+                    int j = slot(oldKeys[i]);
+                    while (keys[j] != -1L) {
+                        j = (j + 1) & mask;
+                    }
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    private static final class IntArray {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.playwright.stealth;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the CDP emulation helpers.
+ */
+public class CdpTransportTest {
+
+    @Test
+    void testNativeEmulationKeepsPatchedEvasions() {
+        StealthConfig config = Stealth.configBuilder().nativeEmulation(true).build();
+
+        // Child targets are not covered by the page session, so the JavaScript patches stay
+        assertTrue(config.getEnabledEvasions().containsKey("navigator.userAgent"));
+        assertTrue(config.getEnabledEvasions().containsKey("navigator.platform"));
+        assertTrue(config.getEnabledEvasions().containsKey("navigator.languages"));
+        assertEquals(new StealthConfig().getEnabledEvasions(), config.getEnabledEvasions());
+        assertNotEquals(new StealthConfig().fingerprint(), config.fingerprint());
+    }
+
+    @Test
+    void testAcceptLanguage() {
+        assertEquals("en-US", CdpTransport.acceptLanguage(Arrays.asList("en-US")));
+        assertEquals("de-DE,de;q=0.9,en;q=0.8", CdpTransport.acceptLanguage(Arrays.asList("de-DE", "de", "en")));
+    }
+
+    @Test
+    void testUserAgentMetadata() {
+        JsonObject metadata = CdpTransport.userAgentMetadata(
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.71 Safari/537.36", null);
+
+        assertEquals("Windows", metadata.get("platform").getAsString());
+        assertEquals("120.0.6099.71", metadata.get("fullVersion").getAsString());
+        assertEquals("120", metadata.getAsJsonArray("brands").get(2).getAsJsonObject().get("version").getAsString());
+        assertEquals("10.0.0", metadata.get("platformVersion").getAsString());
+        assertEquals("x86", metadata.get("architecture").getAsString());
+        assertEquals("64", metadata.get("bitness").getAsString());
+        assertFalse(metadata.get("mobile").getAsBoolean());
+        assertNull(CdpTransport.userAgentMetadata("Mozilla/5.0 (X11; Linux x86_64; rv:120.0) Gecko/20100101 Firefox/120.0", null));
+    }
+
+    @Test
+    public void testUserAgentMetadataFollowsPlatformTokens() {
+        JsonObject mac = CdpTransport.userAgentMetadata(
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "120.0.6099.28");
+        assertEquals("macOS", mac.get("platform").getAsString());
+        assertEquals("10.15.7", mac.get("platformVersion").getAsString());
+        assertEquals("120.0.6099.28", mac.get("fullVersion").getAsString());
+        assertEquals("64", mac.get("bitness").getAsString());
+
+        JsonObject linux = CdpTransport.userAgentMetadata(
+            "Mozilla/5.0 (X11; Linux aarch64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/121.0.0.0 Safari/537.36",
+            "120.0.6099.28");
+        assertEquals("arm", linux.get("architecture").getAsString());
+        assertEquals("64", linux.get("bitness").getAsString());
+        assertFalse(linux.get("platformVersion").getAsString().isEmpty());
+        assertEquals("121.0.0.0", linux.get("fullVersion").getAsString());
+
+        JsonObject windows = CdpTransport.userAgentMetadata(
+            "Mozilla/5.0 (Windows NT 10.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36", null);
+        assertEquals("32", windows.get("bitness").getAsString());
+
+        JsonObject cros = CdpTransport.userAgentMetadata(
+            "Mozilla/5.0 (X11; CrOS x86_64 14541.0.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36", null);
+        assertEquals("14541.0.0", cros.get("platformVersion").getAsString());
+
+        JsonObject android = CdpTransport.userAgentMetadata(
+            "Mozilla/5.0 (Linux; Android 13; Pixel 7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Mobile Safari/537.36", null);
+        assertEquals("13.0.0", android.get("platformVersion").getAsString());
+        assertTrue(android.get("mobile").getAsBoolean());
+    }
+}
@@ -0,0 +1,73 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the seeded fingerprint profile generator.
+ */
+public class FingerprintProfileGeneratorTest {
+
+    @Test
+    void testSameSeedSameProfiles() {
+        FingerprintProfileGenerator a = FingerprintProfileGenerator.builder().seed(42).build();
+        FingerprintProfileGenerator b = FingerprintProfileGenerator.builder().seed(42).build();
+        FingerprintProfileGenerator c = FingerprintProfileGenerator.builder().seed(43).build();
+
+        int differences = 0;
+        for (long i = 0; i < 100; i++) {
+            assertEquals(a.get(i), b.get(i));
+            if (!a.get(i).equals(c.get(i))) {
+                differences++;
+            }
+        }
+        assertTrue(differences > 50);
+    }
+
+    @Test
+    void testProfilesAreConsistent() {
+        FingerprintProfileGenerator generator = FingerprintProfileGenerator.builder().seed(7).chromeVersions(120).build();
+        Set<String> platforms = new HashSet<>();
+
+        for (FingerprintProfile profile : generator.profiles(0, 10_000)) {
+            platforms.add(profile.getPlatform());
+            assertTrue(profile.getUserAgent().contains("Chrome/120.0.0.0"));
+            switch (profile.getPlatform()) {
+                case "Win32":
+                    assertTrue(profile.getUserAgent().contains("Windows NT"));
+                    assertTrue(profile.getWebglRenderer().endsWith("D3D11)"));
+                    break;
+                case "MacIntel":
+                    assertTrue(profile.getUserAgent().contains("Mac OS X"));
+                    assertTrue(profile.getWebglRenderer().contains("Metal") || profile.getWebglRenderer().contains("OpenGL 4.1"));
+                    if (profile.getWebglRenderer().contains("Apple M1,")) {
+                        assertEquals(8, profile.getHardwareConcurrency());
+                    }
+                    break;
+                default:
+                    assertEquals("Linux x86_64", profile.getPlatform());
+                    assertTrue(profile.getUserAgent().contains("X11; Linux"));
+                    assertTrue(profile.getWebglRenderer().contains("OpenGL"));
+                    break;
+            }
+            assertTrue(profile.getScreenWidth() > profile.getScreenHeight());
+        }
+        assertEquals(3, platforms.size());
+    }
+
+    @Test
+    void testWeightsAreRespected() {
+        int[] cumulative = {70, 90, 100};
+        int[] counts = new int[3];
+        for (long i = 0; i < 100_000; i++) {
+            counts[FingerprintProfileGenerator.pick(cumulative, FingerprintProfileGenerator.mix(i))]++;
+        }
+
+        assertEquals(70_000, counts[0], 1_000);
+        assertEquals(20_000, counts[1], 1_000);
+        assertEquals(10_000, counts[2], 1_000);
+    }
+}
@@ -0,0 +1,71 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the in-memory stealth metrics.
+ */
+public class InMemoryStealthMetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        Stealth.setMetrics(null);
+    }
+
+    @Test
+    void testCountersAndConfigCounts() {
+        InMemoryStealthMetrics metrics = new InMemoryStealthMetrics();
+        metrics.pageStealthed(1L, 18, 10_000, 2_000_000);
+        metrics.pageStealthed(1L, 18, 10_000, 3_000_000);
+        metrics.contextStealthed(2L, 1, 11_000, 1_000_000);
+
+        InMemoryStealthMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getPagesStealthed());
+        assertEquals(1, snapshot.getContextsStealthed());
+        assertEquals(37, snapshot.getScriptsInjected());
+        assertEquals(31_000, snapshot.getBytesInjected());
+        assertEquals(2L, snapshot.getConfigCounts().get(1L));
+        assertEquals(1L, snapshot.getConfigCounts().get(2L));
+        assertEquals(3, snapshot.getInjectionLatency().getCount());
+    }
+
+    @Test
+    void testHistogramPercentilesWithinBucketPrecision() {
+        InMemoryStealthMetrics metrics = new InMemoryStealthMetrics();
+        for (int i = 1; i <= 1000; i++) {
+            metrics.pageStealthed(0L, 1, 1, i * 1_000L);
+        }
+
+        InMemoryStealthMetrics.HistogramSnapshot latency = metrics.snapshot().getInjectionLatency();
+        assertEquals(500_500, latency.getMean(), 0.5);
+        assertEquals(500_000, latency.getValueAtPercentile(50), 500_000 * 0.125);
+        assertEquals(990_000, latency.getValueAtPercentile(99), 990_000 * 0.125);
+        assertEquals(1_000_000, latency.getMax(), 1_000_000 * 0.125);
+        assertTrue(latency.getMax() >= 1_000_000);
+    }
+
+    @Test
+    void testBucketBoundsAreContiguous() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = InMemoryStealthMetrics.Histogram.index(value);
+            assertTrue(value <= InMemoryStealthMetrics.Histogram.upperBound(index));
+            assertTrue(index == 0 || value > InMemoryStealthMetrics.Histogram.upperBound(index - 1));
+        }
+    }
+
+    @Test
+    void testCacheReportsHitsAndMisses() {
+        InMemoryStealthMetrics metrics = new InMemoryStealthMetrics();
+        Stealth.setMetrics(metrics);
+
+        StealthScriptCache cache = new StealthScriptCache(4);
+        cache.get(new StealthConfig());
+        cache.get(new StealthConfig());
+        cache.get(new StealthConfig());
+
+        assertEquals(1, metrics.snapshot().getCacheMisses());
+        assertEquals(2, metrics.snapshot().getCacheHits());
+    }
+}
@@ -0,0 +1,148 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the on-disk static asset cache.
+ */
+public class StealthAssetCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private static Map<String, String> headers(String... pairs) {
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            headers.put(pairs[i], pairs[i + 1]);
+        }
+        return headers;
+    }
+
+    @Test
+    void testCacheControl() {
+        long now = 1_000_000L;
+
+        assertEquals(now + 60_000, StealthAssetCache.expiresAt(200, headers("cache-control", "public, max-age=60"), now));
+        assertEquals(now + 10_000, StealthAssetCache.expiresAt(200, headers("cache-control", "max-age=60, s-maxage=10"), now));
+        assertEquals(0, StealthAssetCache.expiresAt(200, headers("cache-control", "no-store, max-age=60"), now));
+        assertEquals(0, StealthAssetCache.expiresAt(200, headers("cache-control", "private, max-age=60"), now));
+        assertEquals(0, StealthAssetCache.expiresAt(200, headers("cache-control", "max-age=0"), now));
+        assertEquals(0, StealthAssetCache.expiresAt(404, headers("cache-control", "max-age=60"), now));
+        assertEquals(0, StealthAssetCache.expiresAt(200, headers("cache-control", "max-age=60", "set-cookie", "a=b"), now));
+        assertEquals(0, StealthAssetCache.expiresAt(200, headers("cache-control", "max-age=60", "vary", "*"), now));
+        assertEquals(0, StealthAssetCache.expiresAt(200, headers(), now));
+        assertEquals(1445412480000L, StealthAssetCache.expiresAt(200, headers("expires", "Wed, 21 Oct 2015 07:28:00 GMT"), 0));
+    }
+
+    @Test
+    void testVaryMustBeCoveredByTheKey() {
+        assertTrue(StealthAssetCache.varyCovered(null, Arrays.asList("accept")));
+        assertTrue(StealthAssetCache.varyCovered("Accept-Encoding", Collections.emptyList()));
+        assertTrue(StealthAssetCache.varyCovered("Accept, Accept-Encoding", Arrays.asList("accept")));
+        assertFalse(StealthAssetCache.varyCovered("User-Agent", Arrays.asList("accept")));
+        assertFalse(StealthAssetCache.varyCovered("Accept", Collections.emptyList()));
+        assertFalse(StealthAssetCache.varyCovered("*", Arrays.asList("accept")));
+    }
+
+    @Test
+    void testStoreReadAndDeduplicate() {
+        StealthAssetCache cache = StealthAssetCache.builder(dir).build();
+        byte[] body = "console.log('bundle')".getBytes();
+        long expires = System.currentTimeMillis() + 60_000;
+
+        cache.store(cache.key("https://a.example/app.js", headers("accept", "*/*")), 200, headers("content-type", "text/javascript", "content-encoding", "gzip"), body, expires);
+        cache.store(cache.key("https://b.example/app.js", headers("accept", "*/*")), 200, headers("content-type", "text/javascript"), body, expires);
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(body.length, cache.getSize());
+        assertNotEquals(cache.key("https://a.example/app.js", headers("accept", "image/webp")),
+            cache.key("https://a.example/app.js", headers("accept", "*/*")));
+        cache.close();
+
+        // A new instance picks up the persisted index
+        StealthAssetCache reopened = StealthAssetCache.builder(dir).build();
+        assertEquals(2, reopened.getEntryCount());
+        assertEquals(body.length, reopened.getSize());
+    }
+
+    @Test
+    void testJournalSurvivesMissingClose() throws IOException {
+        StealthAssetCache cache = StealthAssetCache.builder(dir).keyHeaders().build();
+        long expires = System.currentTimeMillis() + 60_000;
+        cache.store(cache.key("https://example.com/a.js", Collections.emptyMap()), 200, headers(), "a".getBytes(), expires);
+        cache.store(cache.key("https://example.com/b.js", Collections.emptyMap()), 200, headers(), "b".getBytes(), expires);
+        cache.clear();
+        cache.store(cache.key("https://example.com/c.js", Collections.emptyMap()), 200, headers(), "c".getBytes(), expires);
+        // A body written by a process that died before journaling it, and an unfinished temporary file
+        Path orphans = Files.createDirectories(dir.resolve("objects").resolve("ff"));
+        Files.write(orphans.resolve("00"), new byte[10]);
+        Files.write(orphans.resolve("00.tmp"), new byte[10]);
+
+        // No close, as if the process had crashed
+        StealthAssetCache reopened = StealthAssetCache.builder(dir).keyHeaders().build();
+
+        assertEquals(1, reopened.getEntryCount());
+        assertEquals(1, reopened.getSize());
+        assertFalse(Files.exists(orphans.resolve("00")));
+        assertFalse(Files.exists(orphans.resolve("00.tmp")));
+        reopened.close();
+        assertFalse(Files.exists(dir.resolve(StealthAssetCache.JOURNAL_FILE)));
+        assertEquals(1, StealthAssetCache.builder(dir).keyHeaders().build().getEntryCount());
+    }
+
+    @Test
+    void testLruEvictionBySize() {
+        StealthAssetCache cache = StealthAssetCache.builder(dir).maxSize(100_000).keyHeaders().build();
+        long expires = System.currentTimeMillis() + 60_000;
+
+        for (int i = 0; i < 5; i++) {
+            byte[] body = new byte[30_000];
+            Arrays.fill(body, (byte) i);
+            cache.store(cache.key("https://example.com/" + i, Collections.emptyMap()), 200, headers(), body, expires);
+        }
+
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(90_000, cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testMappedReadOfLargeBody() {
+        StealthAssetCache cache = StealthAssetCache.builder(dir).build();
+        byte[] body = new byte[200_000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) (i * 31);
+        }
+
+        cache.store("key", 200, headers(), body, System.currentTimeMillis() + 60_000);
+        String hash = sha(body);
+
+        assertArrayEquals(body, cache.read(hash, body.length));
+        assertNull(cache.read(hash, body.length + 1));
+    }
+
+    private static String sha(byte[] body) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : java.security.MessageDigest.getInstance("SHA-256").digest(body)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.playwright.stealth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the streaming profile file loader.
+ */
+public class StealthConfigLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadsJacksonWrittenConfigs() throws IOException {
+        List<StealthConfig> configs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            configs.add(Stealth.configBuilder()
+                .navUserAgent("Mozilla/5.0 UA " + (i % 3))
+                .renderer("Renderer " + (i % 2))
+                .languages(Arrays.asList("en-US", "en"))
+                .chromeCsi(i % 2 == 0)
+                .transport(StealthTransport.CDP)
+                .build());
+        }
+        Path path = dir.resolve("configs.json");
+        new ObjectMapper().writeValue(path.toFile(), configs);
+
+        try (StealthConfigLoader loader = StealthConfigLoader.open(path)) {
+            List<StealthSnapshot> snapshots = loader.snapshots().collect(Collectors.toList());
+
+            assertEquals(50, snapshots.size());
+            for (int i = 0; i < 50; i++) {
+                assertEquals(configs.get(i).fingerprint(), snapshots.get(i).fingerprint());
+            }
+        }
+    }
+
+    @Test
+    void testInternsRepeatedStrings() throws IOException {
+        Path path = dir.resolve("profiles.json");
+        Files.writeString(path, "{\"version\": 2, \"meta\": {\"a\": [1, 2]}, \"profiles\": ["
+            + "{\"userAgent\": \"UA\", \"webglVendor\": \"Vendor\", \"languages\": [\"de-DE\", \"de\"], \"unknown\": {\"x\": 1}},"
+            + "{\"userAgent\": \"UA\", \"webglVendor\": \"Vendor\", \"languages\": [\"de-DE\", \"de\"], \"screenWidth\": 1920, \"screenHeight\": 1080}"
+            + "]}");
+
+        try (StealthConfigLoader loader = StealthConfigLoader.open(path)) {
+            FingerprintProfile first = loader.nextProfile();
+            FingerprintProfile second = loader.nextProfile();
+
+            assertSame(first.getUserAgent(), second.getUserAgent());
+            assertSame(first.getWebglVendor(), second.getWebglVendor());
+            assertSame(first.getLanguages(), second.getLanguages());
+            assertEquals(1920, second.getScreenWidth());
+            assertEquals(0, first.getScreenWidth());
+            assertFalse(loader.hasNext());
+            assertEquals(4, loader.getInternedCount());
+        }
+    }
+
+    @Test
+    void testSkipBaseAndProfileStoreConversion() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"platform\":\"Win32\",\"hardwareConcurrency\":").append(i % 16 + 1).append('}');
+        }
+        Path path = dir.resolve("profiles.json");
+        Files.writeString(path, json.append(']'));
+        StealthConfig base = Stealth.configBuilder().chromeApp(false).build();
+
+        try (StealthConfigLoader loader = StealthConfigLoader.open(path, base)) {
+            assertEquals(997, loader.skip(997));
+            StealthConfig config = loader.nextConfig();
+            assertEquals(997 % 16 + 1, config.getNavigatorHardwareConcurrency());
+            assertFalse(config.isChromeApp());
+            assertEquals(2, loader.skip(10));
+        }
+
+        Path store = dir.resolve("profiles.bin");
+        assertEquals(1000, StealthConfigLoader.toProfileStore(path, store));
+        assertEquals(5, StealthProfileStore.open(store).get(4).getHardwareConcurrency());
+    }
+
+    @Test
+    void testRejectsMalformedFiles() throws IOException {
+        Path path = dir.resolve("bad.json");
+        Files.writeString(path, "\"just a string\"");
+
+        assertThrows(IOException.class, () -> StealthConfigLoader.open(path));
+    }
+}
@@ -0,0 +1,154 @@
+package com.playwright.stealth;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the bot detection fixtures in src/test/resources/detection against stealthed pages.
+ * The fixtures are served from a local HTTP server and checked in parallel by a worker pool,
+ * and every check has to pass within a time budget, so a regression in either evasion quality
+ * or evasion cost fails the same run. The budgets are set with the system properties
+ * {@code stealth.detection.checkBudgetMs} (in-page check time) and
+ * {@code stealth.detection.pageBudgetMs} (navigation plus check time), and the report is
+ * written to {@code stealth.detection.reportDir}.
+ */
+public class StealthDetectionTest {
+
+    private static final List<String> FIXTURES = Arrays.asList(
+        "webdriver.html", "plugins.html", "permissions.html", "webgl.html",
+        "chrome-runtime.html", "iframe.html", "hairline.html", "outer-dimensions.html",
+        "window-properties.html");
+
+    private static final double CHECK_BUDGET_MILLIS = Double.parseDouble(System.getProperty("stealth.detection.checkBudgetMs", "50"));
+    private static final double PAGE_BUDGET_MILLIS = Double.parseDouble(System.getProperty("stealth.detection.pageBudgetMs", "5000"));
+    private static final Path REPORT_DIR = Paths.get(System.getProperty("stealth.detection.reportDir", "build/reports/detection"));
+
+    private static HttpServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            String name = exchange.getRequestURI().getPath().substring(1);
+            try (InputStream in = StealthDetectionTest.class.getResourceAsStream("/detection/" + name)) {
+                if (in == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                byte[] body = in.readAllBytes();
+                exchange.getResponseHeaders().set("Content-Type",
+                    name.endsWith(".js") ? "text/javascript" : "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testDetectionFixtures() throws IOException {
+        // The local server is plain HTTP, so chrome.runtime has to be allowed on insecure origins
+        StealthConfig config = Stealth.configBuilder()
+            .runOnInsecureOrigins(true)
+            .build();
+
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        try (StealthWorkerPool pool = StealthWorkerPool.builder()
+                .workers(Math.min(4, Runtime.getRuntime().availableProcessors()))
+                .batchSize(1)
+                .config(config)
+                .build()) {
+            for (String fixture : FIXTURES) {
+                futures.add(pool.submit(page -> {
+                    long start = System.nanoTime();
+                    page.navigate(baseUrl + fixture);
+                    Map<?, ?> value = (Map<?, ?>) page.evaluate("window.detection");
+                    return new Result(fixture, value, (System.nanoTime() - start) / 1_000_000.0);
+                }));
+            }
+
+            List<Result> results = new ArrayList<>();
+            for (CompletableFuture<Result> future : futures) {
+                results.add(future.join());
+            }
+            Files.createDirectories(REPORT_DIR);
+            Files.write(REPORT_DIR.resolve("report.txt"), report(results).getBytes(StandardCharsets.UTF_8));
+
+            assertAll(results.stream().map(result -> () -> {
+                assertTrue(result.passed, result.name + ": " + result.detail);
+                assertTrue(result.checkMillis <= CHECK_BUDGET_MILLIS,
+                    result.name + ": check took " + result.checkMillis + " ms, budget " + CHECK_BUDGET_MILLIS + " ms");
+                assertTrue(result.pageMillis <= PAGE_BUDGET_MILLIS,
+                    result.name + ": page took " + result.pageMillis + " ms, budget " + PAGE_BUDGET_MILLIS + " ms");
+            }));
+        }
+    }
+
+    private static String report(List<Result> results) {
+        StringBuilder report = new StringBuilder(String.format("budgets: check %.0f ms, page %.0f ms%n",
+            CHECK_BUDGET_MILLIS, PAGE_BUDGET_MILLIS));
+        report.append(String.format("%-22s %-6s %10s %10s  %s%n", "check", "result", "check ms", "page ms", "detail"));
+        for (Result result : results) {
+            boolean inBudget = result.checkMillis <= CHECK_BUDGET_MILLIS && result.pageMillis <= PAGE_BUDGET_MILLIS;
+            report.append(String.format("%-22s %-6s %10.2f %10.1f  %s%n", result.name,
+                !result.passed ? "FAIL" : inBudget ? "pass" : "SLOW", result.checkMillis, result.pageMillis, result.detail));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Outcome of one fixture: the in-page check time, and the navigation plus check time
+     * seen from Java, which includes injecting the evasions.
+     */
+    private static final class Result {
+        final String name;
+        final boolean passed;
+        final String detail;
+        final double checkMillis;
+        final double pageMillis;
+
+        Result(String fixture, Map<?, ?> value, double pageMillis) {
+            if (value == null) {
+                this.name = fixture;
+                this.passed = false;
+                this.detail = "fixture did not report a result";
+                this.checkMillis = 0;
+            } else {
+                this.name = String.valueOf(value.get("name"));
+                this.passed = Boolean.TRUE.equals(value.get("passed"));
+                this.detail = String.valueOf(value.get("detail"));
+                this.checkMillis = ((Number) value.get("millis")).doubleValue();
+            }
+            this.pageMillis = pageMillis;
+        }
+    }
+}
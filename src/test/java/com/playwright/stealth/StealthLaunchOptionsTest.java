@@ -0,0 +1,61 @@
+package com.playwright.stealth;
+
+import com.microsoft.playwright.BrowserType;
+import org.junit.jupiter.api.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the resource-lean launch presets.
+ */
+public class StealthLaunchOptionsTest {
+
+    @Test
+    void testArgsFollowConfig() {
+        StealthConfig config = Stealth.configBuilder()
+            .navUserAgent("Mozilla/5.0 Test")
+            .languages(Arrays.asList("de-DE", "de"))
+            .build();
+
+        BrowserType.LaunchOptions options = StealthLaunchOptions.balanced(config);
+
+        assertTrue(options.headless);
+        assertTrue(options.args.contains("--lang=de-DE"));
+        assertTrue(options.args.contains("--user-agent=Mozilla/5.0 Test"));
+        assertEquals(Arrays.asList("--enable-automation"), options.ignoreDefaultArgs);
+
+        BrowserType.LaunchOptions withoutWebdriver = StealthLaunchOptions.balanced(Stealth.configBuilder().webdriver(false).build());
+        assertNull(withoutWebdriver.ignoreDefaultArgs);
+        assertTrue(withoutWebdriver.args.contains("--lang=en-US"));
+        assertTrue(withoutWebdriver.args.stream().noneMatch(arg -> arg.startsWith("--user-agent")));
+    }
+
+    @Test
+    void testMinimalExtendsBalanced() {
+        List<String> balanced = StealthLaunchOptions.args(StealthLaunchOptions.Tier.BALANCED, null);
+        List<String> minimal = StealthLaunchOptions.minimal(null).args;
+
+        for (String arg : balanced) {
+            if (!arg.startsWith("--disk-cache-size=")) {
+                assertTrue(minimal.contains(arg), arg);
+            }
+        }
+        assertTrue(minimal.contains("--renderer-process-limit=2"));
+        assertEquals(1, minimal.stream().filter(arg -> arg.startsWith("--disk-cache-size=")).count());
+        assertThrows(IllegalArgumentException.class, () -> StealthLaunchOptions.args(null, null));
+    }
+
+    @Test
+    void testNoArgsThatChangeFingerprint() {
+        for (StealthLaunchOptions.Tier tier : StealthLaunchOptions.Tier.values()) {
+            for (String arg : StealthLaunchOptions.args(tier, null)) {
+                assertNotEquals("--disable-gpu", arg);
+                assertFalse(arg.startsWith("--disable-features"), arg);
+                assertFalse(arg.startsWith("--blink-settings"), arg);
+                assertNotEquals("--single-process", arg);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the memory-mapped fingerprint profile store.
+ */
+public class StealthProfileStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static FingerprintProfile profile(int i) {
+        return FingerprintProfile.builder()
+            .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/12" + (i % 3) + ".0.0.0 Safari/537.36")
+            .platform("Win32")
+            .webglVendor("Google Inc. (NVIDIA)")
+            .webglRenderer(i % 2 == 0 ? "ANGLE (NVIDIA, NVIDIA GeForce GTX 1660 Direct3D11 vs_5_0 ps_5_0, D3D11)" : null)
+            .languages(i % 2 == 0 ? Arrays.asList("de-DE", "de", "en") : Arrays.asList("en-US", "en"))
+            .hardwareConcurrency(4 + i % 5)
+            .screenSize(1920, 1080 + i % 7)
+            .build();
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        List<FingerprintProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            profiles.add(profile(i));
+        }
+        Path path = dir.resolve("profiles.bin");
+
+        assertEquals(1000, StealthProfileStore.write(path, profiles));
+        StealthProfileStore store = StealthProfileStore.open(path);
+
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(profiles.get(i), store.get(i));
+        }
+        // Three user agents, platform, vendor, renderer and two language lists
+        assertEquals(8, store.getStringCount());
+        assertTrue(Files.size(path) < 1000 * 40);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(1000));
+    }
+
+    @Test
+    void testToConfigKeepsBaseFlags() throws IOException {
+        Path path = dir.resolve("profiles.bin");
+        StealthProfileStore.write(path, Arrays.asList(profile(0), profile(1)));
+        StealthProfileStore store = StealthProfileStore.open(path);
+        StealthConfig base = Stealth.configBuilder().chromeCsi(false).build();
+
+        StealthSnapshot snapshot = store.toSnapshot(0, base);
+
+        assertFalse(snapshot.isChromeCsi());
+        assertEquals(profile(0).getUserAgent(), snapshot.getNavUserAgent());
+        assertEquals(Arrays.asList("de-DE", "de", "en"), snapshot.getLanguages());
+        assertEquals(4, snapshot.getNavigatorHardwareConcurrency());
+        assertEquals(profile(1).toConfig().fingerprint(), store.toConfig(1).fingerprint());
+        assertNull(base.getNavUserAgent());
+    }
+
+    @Test
+    void testEmptyLanguagesFallBackToDefaults() throws IOException {
+        Path path = dir.resolve("profiles.bin");
+        FingerprintProfile profile = FingerprintProfile.builder().userAgent("Mozilla/5.0").platform("Win32").build();
+        StealthProfileStore.write(path, Arrays.asList(profile));
+        StealthProfileStore store = StealthProfileStore.open(path);
+
+        assertEquals(profile, store.get(0));
+        assertNull(store.toConfig(0).getLanguages());
+        assertNull(profile.toConfig().getLanguages());
+        assertEquals(profile.toConfig().fingerprint(), store.toConfig(0).fingerprint());
+        assertFalse(String.join("\n", store.toSnapshot(0).getEnabledScripts()).contains("\"languages\":[]"));
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path path = dir.resolve("other.bin");
+        Files.write(path, "not a profile store at all, just text".getBytes());
+
+        assertThrows(IOException.class, () -> StealthProfileStore.open(path));
+    }
+}
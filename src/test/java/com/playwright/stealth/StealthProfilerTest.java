@@ -0,0 +1,61 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the per-evasion profiler.
+ */
+public class StealthProfilerTest {
+
+    @Test
+    void testScriptWrapsEveryEvasion() {
+        StealthConfig config = Stealth.configBuilder()
+            .chromeCsi(false)
+            .build();
+        String script = StealthProfiler.script(config);
+
+        for (String name : config.getEnabledEvasions().keySet()) {
+            assertTrue(script.contains("__stealthRun('" + name + "', () => {"), name);
+        }
+        assertFalse(script.contains("'chrome.csi'"));
+        assertTrue(script.contains(StealthProfiler.BINDING));
+        assertTrue(script.contains(StealthScripts.NAVIGATOR_PLUGINS));
+    }
+
+    @Test
+    void testAggregatesSamplesPerEvasion() {
+        StealthProfiler profiler = new StealthProfiler();
+        profiler.record(true, Arrays.asList(
+            Arrays.asList("utils", 0.2, 1000, false),
+            Arrays.asList("navigator.plugins", 1.5, 4000, false),
+            Arrays.asList("chrome.runtime", 0.5, 0, true)));
+        profiler.record(false, Arrays.asList(
+            Arrays.asList("utils", 0.2, 0, false),
+            Arrays.asList("navigator.plugins", 2.5, 2000, false)));
+        profiler.record(true, null);
+
+        StealthProfiler.Report report = profiler.report();
+        assertEquals(1, report.getPages());
+        assertEquals(2, report.getFrames());
+
+        List<StealthProfiler.EvasionProfile> evasions = report.getEvasions();
+        assertEquals("navigator.plugins", evasions.get(0).getName());
+        StealthProfiler.EvasionProfile plugins = report.get("navigator.plugins");
+        assertEquals(2, plugins.getRuns());
+        assertEquals(4.0, plugins.getTotalMillis(), 1e-9);
+        assertEquals(2.0, plugins.getMeanMillis(), 1e-9);
+        assertEquals(2.5, plugins.getMaxMillis(), 1e-9);
+        assertEquals(3000.0, plugins.getMeanHeapDelta(), 1e-9);
+        assertEquals(1, report.get("chrome.runtime").getFailures());
+        assertNull(report.get("webgl.vendor"));
+        assertTrue(report.toString().contains("navigator.plugins"));
+
+        profiler.reset();
+        assertEquals(0, profiler.report().getFrames());
+        assertTrue(profiler.report().getEvasions().isEmpty());
+    }
+}
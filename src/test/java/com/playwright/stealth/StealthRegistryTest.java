@@ -0,0 +1,174 @@
+package com.playwright.stealth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import org.junit.jupiter.api.*;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the duplicate-application registry.
+ * Pages and contexts are stand-ins that record the init scripts registered on them.
+ */
+public class StealthRegistryTest {
+
+    private final List<String> contextScripts = new ArrayList<>();
+    private final List<String> pageScripts = new ArrayList<>();
+
+    @Test
+    void testRepeatedPageStealthIsNoOp() {
+        BrowserContext context = context(contextScripts);
+        Page page = page(context, pageScripts, false);
+        StealthConfig config = new StealthConfig();
+
+        assertFalse(Stealth.isStealthed(page));
+        Stealth.stealth(page, config);
+        int registered = pageScripts.size();
+        Stealth.stealth(page, config);
+        Stealth.stealth(page, Stealth.configBuilder().bundleScripts(true).build());
+
+        assertEquals(config.getEnabledScripts().size(), registered);
+        assertEquals(registered, pageScripts.size());
+        assertTrue(Stealth.isStealthed(page));
+        assertFalse(Stealth.isStealthed(context));
+    }
+
+    @Test
+    void testPagesOfStealthedContextAreSkipped() {
+        BrowserContext context = context(contextScripts);
+        Page page = page(context, pageScripts, false);
+
+        Stealth.stealthContext(context, null);
+        Stealth.stealthContext(context, null);
+        Stealth.stealth(page, null);
+
+        assertEquals(1, contextScripts.size());
+        assertTrue(pageScripts.isEmpty());
+        assertTrue(Stealth.isStealthed(context));
+        assertTrue(Stealth.isStealthed(page));
+    }
+
+    @Test
+    void testContextAfterPageIsRejected() {
+        List<Page> pages = new ArrayList<>();
+        BrowserContext context = context(contextScripts, pages);
+        Page page = page(context, pageScripts, false);
+        pages.add(page);
+
+        Stealth.stealth(page, null);
+
+        // Without an in-page marker the context bundle would patch the page's windows a second time
+        assertThrows(IllegalStateException.class, () -> Stealth.stealthContext(context, null));
+        assertTrue(contextScripts.isEmpty());
+        assertFalse(Stealth.isStealthed(context));
+    }
+
+    @Test
+    void testRepeatedLeanCallsInstallBlockerOnce() {
+        BrowserContext context = context(contextScripts);
+        Page page = page(context, pageScripts, false);
+        BrowserContext other = context(contextScripts);
+
+        Stealth.stealthLean(page, null);
+        Stealth.stealthLean(page, null);
+        Stealth.stealthContextLean(other, null, null);
+        Stealth.stealthContextLean(other, null, null);
+
+        assertEquals(1, pageScripts.stream().filter(call -> call.startsWith("route ")).count());
+        assertEquals(1, contextScripts.stream().filter(call -> call.startsWith("route ")).count());
+    }
+
+    @Test
+    void testFailedApplicationCanBeRetried() {
+        Page page = page(context(contextScripts), pageScripts, true);
+
+        assertThrows(IllegalStateException.class, () -> Stealth.stealth(page, null));
+        assertFalse(Stealth.isStealthed(page));
+    }
+
+    @Test
+    void testScriptsAddNoGlobalProperties() throws Exception {
+        Assumptions.assumeTrue(nodeAvailable(), "node is not installed");
+
+        Map<String, String> evasions = new LinkedHashMap<>();
+        evasions.put("count", "const step = 1\nglobalThis.count = (globalThis.count || 0) + step");
+        String bundle = StealthBundler.bundle("const opts = {}", evasions);
+        List<String> scripts = StealthBundler.scripts("const opts = {}", StealthScripts.UTILS, StealthScripts.GENERATE_MAGIC_ARRAYS, evasions);
+
+        // Each array is one realm, each entry one init script
+        List<List<String>> realms = List.of(scripts, List.of(bundle));
+        String harness = "const vm = require('vm')\n"
+            + "const realms = JSON.parse(require('fs').readFileSync(process.argv[2], 'utf8'))\n"
+            + "console.log(JSON.stringify(realms.map(realm => {\n"
+            + "    const context = vm.createContext({})\n"
+            + "    const before = new Set(vm.runInContext('Object.getOwnPropertyNames(globalThis)', context))\n"
+            + "    for (const script of realm) vm.runInContext(script, context)\n"
+            + "    return vm.runInContext('Object.getOwnPropertyNames(globalThis)', context).filter(name => !before.has(name))\n"
+            + "})))\n";
+        Path dir = Files.createTempDirectory("stealth-globals");
+        Files.writeString(dir.resolve("harness.js"), harness);
+        Files.writeString(dir.resolve("realms.json"), new ObjectMapper().writeValueAsString(realms));
+
+        Process node = new ProcessBuilder("node", dir.resolve("harness.js").toString(), dir.resolve("realms.json").toString())
+            .redirectErrorStream(true).start();
+        String output = new String(node.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+
+        assertEquals(0, node.waitFor(), output);
+        // Only the test evasion's own global, nothing from the scripts around it
+        assertEquals("[[\"count\"],[\"count\"]]", output);
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            return new ProcessBuilder("node", "--version").start().waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static BrowserContext context(List<String> scripts) {
+        return context(scripts, List.of());
+    }
+
+    private static BrowserContext context(List<String> scripts, List<Page> pages) {
+        return (BrowserContext) Proxy.newProxyInstance(BrowserContext.class.getClassLoader(), new Class<?>[] { BrowserContext.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "addInitScript": scripts.add((String) args[0]); return null;
+                    case "route": scripts.add("route " + args[0]); return null;
+                    case "pages": return pages;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+    }
+
+    private static Page page(BrowserContext context, List<String> scripts, boolean failing) {
+        return (Page) Proxy.newProxyInstance(Page.class.getClassLoader(), new Class<?>[] { Page.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "addInitScript":
+                        if (failing) {
+                            throw new IllegalStateException("Target closed");
+                        }
+                        scripts.add((String) args[0]);
+                        return null;
+                    case "route": scripts.add("route " + args[0]); return null;
+                    case "context": return context;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+    }
+}
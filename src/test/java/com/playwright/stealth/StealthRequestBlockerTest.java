@@ -0,0 +1,132 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the compiled request blocker.
+ */
+public class StealthRequestBlockerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testResourceTypes() {
+        StealthRequestBlocker blocker = StealthRequestBlocker.builder().blockResourceTypes("image", "font").build();
+
+        assertTrue(blocker.shouldBlock("https://example.com/a.png", "image"));
+        assertTrue(blocker.shouldBlock("https://example.com/a.woff2", "font"));
+        assertFalse(blocker.shouldBlock("https://example.com/app.js", "script"));
+        assertFalse(blocker.shouldBlock("https://example.com/", null));
+        assertThrows(IllegalArgumentException.class, () -> StealthRequestBlocker.builder().blockResourceTypes("images"));
+    }
+
+    @Test
+    void testDomainSuffixes() {
+        StealthRequestBlocker blocker = StealthRequestBlocker.builder().blockDomains("tracker.com", ".ads.example.org").build();
+
+        assertTrue(blocker.shouldBlock("https://tracker.com/pixel", "image"));
+        assertTrue(blocker.shouldBlock("https://cdn.eu.TRACKER.com:8443/x.js?y=1", "script"));
+        assertTrue(blocker.shouldBlock("http://user@ads.example.org/", "document"));
+        assertFalse(blocker.shouldBlock("https://badtracker.com/", "script"));
+        assertFalse(blocker.shouldBlock("https://example.org/", "script"));
+        assertFalse(blocker.shouldBlock("https://example.com/?ref=tracker.com", "script"));
+    }
+
+    @Test
+    void testUrlPatternsMatchOverlapping() {
+        StealthRequestBlocker blocker = StealthRequestBlocker.builder()
+            .blockUrlPatterns("he", "she", "hers", "/collect?", "/beacon/")
+            .build();
+
+        assertTrue(blocker.shouldBlock("https://x.io/ushers", "script"));
+        assertTrue(blocker.shouldBlock("https://x.io/g/COLLECT?v=2", "xhr"));
+        assertTrue(blocker.shouldBlock("https://x.io/api/beacon/1", "fetch"));
+        assertFalse(blocker.shouldBlock("https://x.io/api/b", "fetch"));
+
+        StealthRequestBlocker failLinks = StealthRequestBlocker.builder().blockUrlPatterns("abcd", "bce").build();
+        assertTrue(failLinks.shouldBlock("https://x.io/abce", "script"));
+        assertFalse(failLinks.shouldBlock("https://x.io/abc", "script"));
+    }
+
+    @Test
+    void testBlocklistFile() throws IOException {
+        Path path = dir.resolve("blocklist.txt");
+        Files.write(path, Arrays.asList(
+            "! adblock comment",
+            "# hosts comment",
+            "||ads.example.com^$third-party",
+            "0.0.0.0 metrics.example.net",
+            "0.0.0.0 0.0.0.0",
+            "tracking.example.io",
+            "/pagead/",
+            "/ads/*.gif",
+            ""));
+
+        StealthRequestBlocker blocker = StealthRequestBlocker.builder().blocklist(path).build();
+
+        assertEquals(3, blocker.getDomainCount());
+        assertEquals(1, blocker.getPatternCount());
+        assertTrue(blocker.shouldBlock("https://x.ads.example.com/", "script"));
+        assertTrue(blocker.shouldBlock("https://metrics.example.net/", "script"));
+        assertTrue(blocker.shouldBlock("https://tracking.example.io/", "script"));
+        assertTrue(blocker.shouldBlock("https://site.com/pagead/1", "script"));
+        assertFalse(blocker.shouldBlock("https://site.com/ads/1.gif", "image"));
+    }
+
+    @Test
+    void testHostsLines() {
+        StealthRequestBlocker.Builder builder = StealthRequestBlocker.builder();
+        builder.addRule("0.0.0.0\tads.example.com");
+        builder.addRule("127.0.0.1  a.example.net\tb.example.net # two hosts");
+        builder.addRule("::1 localhost ip6-localhost");
+        builder.addRule("0.0.0.0 0.0.0.0");
+        StealthRequestBlocker blocker = builder.build();
+
+        assertEquals(3, blocker.getDomainCount());
+        assertEquals(0, blocker.getPatternCount());
+        assertTrue(blocker.shouldBlock("https://ads.example.com/", "script"));
+        assertTrue(blocker.shouldBlock("https://b.example.net/", "script"));
+    }
+
+    @Test
+    void testExceptionAndCosmeticRulesAreSkipped() {
+        StealthRequestBlocker.Builder builder = StealthRequestBlocker.builder();
+        builder.addRule("@@||cdn.example.com^$script");
+        builder.addRule("@@/ads/allowed.js");
+        builder.addRule("example.com##.ad-banner");
+        builder.addRule("##.sponsored");
+        builder.addRule("example.com#@#.ad-banner");
+        StealthRequestBlocker blocker = builder.build();
+
+        assertEquals(0, blocker.getDomainCount());
+        assertEquals(0, blocker.getPatternCount());
+    }
+
+    @Test
+    void testSubstringAndAnchoredRules() {
+        StealthRequestBlocker.Builder builder = StealthRequestBlocker.builder();
+        builder.addRule("-ad-banner.");
+        builder.addRule("|https://static.example.org/track");
+        builder.addRule("/pixel.gif|");
+        builder.addRule("||example.com/ads/^");
+        builder.addRule("metrics.example.io$third-party");
+        StealthRequestBlocker blocker = builder.build();
+
+        assertEquals(1, blocker.getDomainCount());
+        assertEquals(4, blocker.getPatternCount());
+        assertTrue(blocker.shouldBlock("https://site.com/img/top-ad-banner.png", "image"));
+        assertTrue(blocker.shouldBlock("https://static.example.org/track.js", "script"));
+        assertTrue(blocker.shouldBlock("https://site.com/pixel.gif", "image"));
+        assertTrue(blocker.shouldBlock("https://example.com/ads/1.js", "script"));
+        assertTrue(blocker.shouldBlock("https://metrics.example.io/", "script"));
+        assertFalse(blocker.shouldBlock("https://ad-banner.com/", "script"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the stealth script cache and configuration fingerprints.
+ */
+public class StealthScriptCacheTest {
+
+    @Test
+    void testEqualConfigsShareFingerprint() {
+        StealthConfig first = new StealthConfig();
+        first.setLanguages(Arrays.asList("de-DE", "de"));
+        StealthConfig second = new StealthConfig();
+        second.setLanguages(Arrays.asList("de-DE", "de"));
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+
+        second.setNavigatorPlugins(false);
+        assertNotEquals(first.fingerprint(), second.fingerprint());
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        StealthScriptCache cache = new StealthScriptCache(4);
+        StealthConfig config = new StealthConfig();
+
+        List<String> scripts = cache.getScripts(config);
+        assertEquals(config.getEnabledScripts(), scripts);
+        assertSame(scripts, cache.getScripts(new StealthConfig()));
+        assertEquals(config.getBundledScript(), cache.getBundledScript(config));
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertThrows(UnsupportedOperationException.class, () -> scripts.add("x"));
+    }
+
+    @Test
+    void testFingerprintCollisionsDoNotShareScripts() {
+        StealthScriptCache cache = new StealthScriptCache(4);
+        StealthConfig first = new CollidingConfig("First Vendor");
+        StealthConfig second = new CollidingConfig("Second Vendor");
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertNotEquals(first, second);
+
+        assertTrue(cache.get(first).optsJson().contains("First Vendor"));
+        assertTrue(cache.get(second).optsJson().contains("Second Vendor"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(new StealthConfig(first), cache.get(first));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        StealthScriptCache cache = new StealthScriptCache(2);
+        StealthConfig a = Stealth.configBuilder().navVendor("A").build();
+        StealthConfig b = Stealth.configBuilder().navVendor("B").build();
+        StealthConfig c = Stealth.configBuilder().navVendor("C").build();
+
+        cache.getScripts(a);
+        cache.getScripts(b);
+        cache.getScripts(a);
+        cache.getScripts(c);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        // b was least recently used, so a is still cached
+        cache.getScripts(a);
+        assertEquals(3, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    /** Configuration whose fingerprint always collides. */
+    private static final class CollidingConfig extends StealthConfig {
+        CollidingConfig(String navVendor) {
+            setNavVendor(navVendor);
+        }
+
+        @Override
+        public long fingerprint() {
+            return 42;
+        }
+    }
+}
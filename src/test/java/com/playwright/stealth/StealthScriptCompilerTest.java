@@ -0,0 +1,161 @@
+package com.playwright.stealth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for script minification and constant folding.
+ */
+public class StealthScriptCompilerTest {
+
+    @Test
+    void testMinifyStripsCommentsAndKeepsStrings() {
+        String script = """
+            // comment
+            const a = 'keep // this'  /* block */
+            const b = "and /* this */"
+            return a + b
+            """;
+
+        assertEquals("const a='keep // this'\nconst b=\"and /* this */\"\nreturn a+b", StealthScriptCompiler.minify(script));
+    }
+
+    @Test
+    void testMinifyKeepsLineBreaksNeededBySemicolonInsertion() {
+        assertEquals("const a={}\nconst b=1", StealthScriptCompiler.minify("const a = {}\n  const b = 1"));
+        assertEquals("a\n++b", StealthScriptCompiler.minify("a\n++b"));
+        assertEquals("a+ +b", StealthScriptCompiler.minify("a + +b"));
+        assertEquals("f(a,b)", StealthScriptCompiler.minify("f(\n  a,\n  b\n)"));
+    }
+
+    @Test
+    void testOptionsAreInlined() {
+        StealthConfig config = new StealthConfig();
+        config.setNavVendor("Folded Vendor");
+        config.setLanguages(Arrays.asList("nl-NL", "nl"));
+
+        StealthScriptCompiler.Result result = StealthScriptCompiler.compile(config);
+
+        assertTrue(result.getScripts().stream().noneMatch(script -> script.startsWith("const opts")));
+        assertFalse(result.getBundle().contains("opts."));
+        assertFalse(result.getBundle().contains("const opts"));
+        assertTrue(result.getBundle().contains("get:()=>\"Folded Vendor\"}"));
+
+        // Arrays are hoisted so the getter returns the same instance each time
+        assertTrue(result.getBundle().contains("const $opts_languages=[\"nl-NL\",\"nl\"];"));
+        assertTrue(result.getBundle().contains("get:()=>$opts_languages}"));
+    }
+
+    @Test
+    void testFallbacksAreFolded() throws Exception {
+        // The user agent is unset, so its read folds to the fallback; the vendor is set and drops it
+        String bundle = StealthScriptCompiler.compile(new StealthConfig()).getBundle();
+
+        assertFalse(bundle.contains("null||"), bundle);
+        assertFalse(bundle.contains("||'Google Inc.'"), bundle);
+        assertTrue(bundle.contains("get:()=>current_ua.replace('HeadlessChrome/','Chrome/')"), bundle);
+        assertTrue(bundle.contains("return \"Intel Inc.\";"), bundle);
+        String proxyFree = StealthScriptCompiler.compile(Stealth.configBuilder().proxyFree(true).build()).getBundle();
+        assertTrue(proxyFree.contains("const webglOverrides=[\"Intel Inc.\",\"Intel Iris OpenGL Engine\"]"), proxyFree);
+
+        // Reads that are not the start of an expression are left alone
+        assertEquals("a&&\"B\"||'x'", fold("a && opts.b || 'x'", "{\"b\":\"B\"}"));
+        assertEquals("\"B\"||'x'+c", fold("opts.b || 'x' + c", "{\"b\":\"B\"}"));
+        assertEquals("f(\"B\")", fold("f(opts.b || g(1).h)", "{\"b\":\"B\"}"));
+        assertEquals("f(g(1).h)", fold("f(opts.b || g(1).h)", "{\"b\":\"\"}"));
+    }
+
+    @Test
+    void testCompiledEvasionsParse() throws Exception {
+        Assumptions.assumeTrue(nodeAvailable(), "node is not installed");
+
+        List<StealthConfig> configs = Arrays.asList(
+            new StealthConfig(),
+            Stealth.configBuilder().navUserAgent("Mozilla/5.0 Test").navPlatform("Win32").runOnInsecureOrigins(true).build(),
+            Stealth.configBuilder().vendor("").renderer(null).languages(null).navVendor(null).build(),
+            Stealth.configBuilder().proxyFree(true).build(),
+            Stealth.configBuilder().lazyEvasions(true).build());
+        Path dir = Files.createTempDirectory("stealth-compiler");
+        int checked = 0;
+        for (StealthConfig config : configs) {
+            StealthScriptCompiler.Result result = StealthScriptCompiler.compile(config);
+            List<String> scripts = new ArrayList<>(result.getScripts());
+            scripts.add(result.getBundle());
+            for (String script : scripts) {
+                Path file = dir.resolve("script-" + checked++ + ".js");
+                Files.writeString(file, script);
+                Process node = new ProcessBuilder("node", "--check", file.toString()).redirectErrorStream(true).start();
+                String output = new String(node.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                assertEquals(0, node.waitFor(), output + "\n" + script);
+            }
+        }
+    }
+
+    @Test
+    void testLazyPropertiesSettleInPlace() throws Exception {
+        Assumptions.assumeTrue(nodeAvailable(), "node is not installed");
+
+        String harness = String.join("\n",
+            "const chrome = { loadTimes: 1 }",
+            "utils.defineLazy(chrome, 'app', () => ({ isInstalled: false, self: chrome.app }))",
+            "utils.defineLazy(chrome, 'broken', () => { throw new Error('broken') })",
+            "chrome.csi = 2",
+            "const before = Object.keys(chrome).join()",
+            "const stub = Object.getOwnPropertyDescriptor(chrome, 'app').get",
+            "const app = chrome.app",
+            "const broken = chrome.broken",
+            "console.log(JSON.stringify([before, Object.keys(chrome).join(), 'value' in Object.getOwnPropertyDescriptor(chrome, 'app'),",
+            "    app === chrome.app, app.self === undefined, broken === undefined, Function.prototype.toString.call(stub)]))");
+        String script = "const utils = {}\n" + StealthScripts.NATIVE_TO_STRING + StealthScripts.LAZY_PROPERTIES + harness;
+        String expected = "[\"loadTimes,app,broken,csi\",\"loadTimes,app,csi\",true,true,true,true,\"function get app() { [native code] }\"]";
+
+        assertEquals(expected, runNode(script));
+        assertEquals(expected, runNode(StealthScriptCompiler.minify(script)));
+    }
+
+    private static String runNode(String script) throws Exception {
+        Path file = Files.createTempFile("stealth-lazy", ".js");
+        Files.writeString(file, script);
+        Process node = new ProcessBuilder("node", file.toString()).redirectErrorStream(true).start();
+        String output = new String(node.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertEquals(0, node.waitFor(), output);
+        return output;
+    }
+
+    private static String fold(String script, String optsJson) throws Exception {
+        return StealthScriptCompiler.fold(script, new ObjectMapper().readTree(optsJson)).code;
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            return new ProcessBuilder("node", "--version").start().waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Test
+    void testCompiledOutputIsSmaller() {
+        StealthScriptCompiler.Result result = StealthScriptCompiler.compile(new StealthConfig());
+
+        assertTrue(result.getCompiledScriptsSize() < result.getOriginalScriptsSize());
+        assertTrue(result.getCompiledBundleSize() < result.getOriginalBundleSize());
+    }
+
+    @Test
+    void testMinifyFlagSwitchesConfigOutput() {
+        StealthConfig config = Stealth.configBuilder().minifyScripts(true).build();
+
+        assertEquals(StealthScriptCompiler.compile(config).getScripts(), config.getEnabledScripts());
+        assertEquals(StealthScriptCompiler.compile(config).getBundle(), config.snapshot().getBundledScript());
+        assertNotEquals(new StealthConfig().fingerprint(), config.fingerprint());
+    }
+}
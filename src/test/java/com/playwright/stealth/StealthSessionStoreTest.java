@@ -0,0 +1,110 @@
+package com.playwright.stealth;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the persistent session store.
+ */
+public class StealthSessionStoreTest {
+
+    private static final String STATE = "{\"cookies\":[{\"name\":\"sid\",\"value\":\"abc\",\"domain\":\"example.com\",\"path\":\"/\"}],\"origins\":[]}";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSaveAndRestoreAcrossInstances() {
+        StealthConfig config = Stealth.configBuilder()
+            .navUserAgent("Mozilla/5.0 Session Test")
+            .languages(Arrays.asList("sv-SE", "sv"))
+            .transport(StealthTransport.CDP)
+            .chromeCsi(false)
+            .build();
+
+        try (StealthSessionStore store = StealthSessionStore.builder(dir).build()) {
+            store.save("profile-1", STATE, config);
+            // Visible before the background write finished
+            assertEquals(STATE, store.load("profile-1").get().getStorageState());
+        }
+
+        try (StealthSessionStore store = StealthSessionStore.builder(dir).build()) {
+            StealthSessionStore.Session session = store.load("profile-1").get();
+
+            assertEquals(STATE, session.getStorageState());
+            assertEquals(config.fingerprint(), session.getConfig().fingerprint());
+            assertEquals(Arrays.asList("sv-SE", "sv"), session.getConfig().getLanguages());
+            assertEquals(StealthTransport.CDP, session.getConfig().getTransport());
+            assertFalse(session.getConfig().isChromeCsi());
+            assertEquals(config.fingerprint(), store.index().get("profile-1").fingerprint);
+            assertFalse(store.load("profile-2").isPresent());
+        }
+    }
+
+    @Test
+    void testLatestSaveWinsAndDelete() {
+        try (StealthSessionStore store = StealthSessionStore.builder(dir).build()) {
+            store.save("profile-1", "{\"cookies\":[],\"origins\":[]}", null);
+            store.save("profile-1", STATE, null).join();
+
+            assertEquals(STATE, store.load("profile-1").get().getStorageState());
+            assertEquals(1, store.index().size());
+
+            store.delete("profile-1").join();
+
+            assertFalse(store.load("profile-1").isPresent());
+            assertTrue(store.index().isEmpty());
+        }
+    }
+
+    @Test
+    void testSharedOptionsDoNotLeakBetweenProfiles() {
+        List<Browser.NewContextOptions> created = new ArrayList<>();
+        Browser browser = (Browser) Proxy.newProxyInstance(Browser.class.getClassLoader(), new Class<?>[] { Browser.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("newContext")) {
+                    created.add((Browser.NewContextOptions) args[0]);
+                    return Proxy.newProxyInstance(BrowserContext.class.getClassLoader(), new Class<?>[] { BrowserContext.class },
+                        (context, m, a) -> m.getName().equals("pages") ? List.of()
+                            : m.getName().equals("hashCode") ? System.identityHashCode(context)
+                            : m.getName().equals("equals") ? context == a[0] : null);
+                }
+                return null;
+            });
+        Browser.NewContextOptions options = new Browser.NewContextOptions().setViewportSize(1280, 720);
+
+        try (StealthSessionStore store = StealthSessionStore.builder(dir).build()) {
+            store.save("profile-1", STATE, Stealth.configBuilder().navUserAgent("Agent One").languages(Arrays.asList("sv-SE")).build());
+            store.newContext(browser, "profile-1", null, options);
+            store.newContext(browser, "profile-2", Stealth.configBuilder().navUserAgent("Agent Two").build(), options);
+        }
+
+        assertEquals(STATE, created.get(0).storageState);
+        assertEquals("Agent One", created.get(0).userAgent);
+        assertEquals("sv-SE", created.get(0).locale);
+        assertNull(created.get(1).storageState);
+        assertEquals("Agent Two", created.get(1).userAgent);
+        assertEquals("en-US", created.get(1).locale);
+        assertEquals(1280, created.get(1).viewportSize.get().width);
+        assertNull(options.storageState);
+        assertNull(options.userAgent);
+        assertNull(options.locale);
+    }
+
+    @Test
+    void testInvalidArguments() {
+        try (StealthSessionStore store = StealthSessionStore.builder(dir).build()) {
+            assertThrows(IllegalArgumentException.class, () -> store.load(""));
+            assertThrows(IllegalArgumentException.class, () -> store.save("p", (String) null, null));
+        }
+    }
+}
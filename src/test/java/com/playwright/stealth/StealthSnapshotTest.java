@@ -0,0 +1,120 @@
+package com.playwright.stealth;
+
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for immutable stealth configuration snapshots.
+ */
+public class StealthSnapshotTest {
+
+    @Test
+    void testSnapshotMatchesSource() {
+        StealthConfig config = new StealthConfig();
+        config.setNavVendor("Snapshot Vendor");
+        config.setChromeCsi(false);
+
+        StealthSnapshot snapshot = config.snapshot();
+
+        assertEquals("Snapshot Vendor", snapshot.getNavVendor());
+        assertFalse(snapshot.isChromeCsi());
+        assertEquals(config.fingerprint(), snapshot.fingerprint());
+        assertEquals(config.getEnabledScripts(), snapshot.getEnabledScripts());
+        assertEquals(config.getBundledScript(), snapshot.getBundledScript());
+        assertTrue(snapshot.optsJson().contains("\"navigatorVendor\":\"Snapshot Vendor\""));
+        assertSame(snapshot, snapshot.snapshot());
+    }
+
+    @Test
+    void testSnapshotIsFrozen() {
+        List<String> languages = new ArrayList<>(Arrays.asList("it-IT", "it"));
+        StealthConfig config = new StealthConfig();
+        config.setLanguages(languages);
+        StealthSnapshot snapshot = config.snapshot();
+
+        // Changes to the source do not leak into the snapshot
+        config.setNavVendor("Changed");
+        languages.add("en");
+        assertEquals("Google Inc.", snapshot.getNavVendor());
+        assertEquals(Arrays.asList("it-IT", "it"), snapshot.getLanguages());
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.setWebdriver(false));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getLanguages().add("en"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getEnabledScripts().clear());
+    }
+
+    @Test
+    void testSnapshotCopiesAreMutable() {
+        StealthSnapshot snapshot = Stealth.configBuilder().navVendor("Frozen").snapshot();
+        StealthConfig copy = new StealthConfig(snapshot);
+
+        assertTrue(snapshot.isFrozen());
+        assertFalse(copy.isFrozen());
+        copy.setNavVendor("Thawed");
+        copy.getLanguages().add("de");
+        assertEquals("Frozen", snapshot.getNavVendor());
+        assertEquals(Arrays.asList("en-US", "en"), snapshot.getLanguages());
+        assertThrows(UnsupportedOperationException.class, () -> FingerprintProfileGenerator.builder().seed(1).build().get(0).applyTo(snapshot));
+    }
+
+    @Test
+    void testBuilderReturnsIndependentConfigs() {
+        Stealth.StealthConfigBuilder builder = Stealth.configBuilder().navVendor("First");
+        StealthConfig first = builder.build();
+        builder.navVendor("Second");
+        StealthConfig second = builder.build();
+
+        assertNotSame(first, second);
+        assertEquals("First", first.getNavVendor());
+        assertEquals("Second", second.getNavVendor());
+        assertEquals("Second", builder.snapshot().getNavVendor());
+    }
+
+    @Test
+    void testCacheReturnsSnapshotsAsIs() {
+        StealthScriptCache cache = new StealthScriptCache(4);
+        StealthSnapshot snapshot = new StealthConfig().snapshot();
+
+        assertSame(snapshot, cache.get(snapshot));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    void testProxyFreeReplacesProxiedHooks() {
+        StealthSnapshot snapshot = Stealth.configBuilder().proxyFree(true).snapshot();
+        Map<String, String> evasions = snapshot.getEnabledEvasions();
+
+        assertTrue(snapshot.isProxyFree());
+        assertNotEquals(new StealthConfig().fingerprint(), snapshot.fingerprint());
+        assertEquals("utils.toString", evasions.keySet().iterator().next());
+        assertEquals(StealthScripts.WEBDRIVER_PROXY_FREE, evasions.get("navigator.webdriver"));
+        assertEquals(StealthScripts.WEBGL_VENDOR_PROXY_FREE, evasions.get("webgl.vendor"));
+        assertFalse(evasions.containsKey("iframe.contentWindow"));
+        for (String script : evasions.values()) {
+            assertFalse(script.contains("Proxy("), script);
+            assertFalse(script.contains("arguments"), script);
+        }
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.setProxyFree(false));
+    }
+
+    @Test
+    void testLazyEvasionsReplaceEagerBuilders() {
+        StealthSnapshot snapshot = Stealth.configBuilder().lazyEvasions(true).snapshot();
+        Map<String, String> evasions = snapshot.getEnabledEvasions();
+
+        assertTrue(snapshot.isLazyEvasions());
+        assertNotEquals(new StealthConfig().fingerprint(), snapshot.fingerprint());
+        assertEquals("utils.lazy", evasions.keySet().iterator().next());
+        assertEquals(StealthScripts.NAVIGATOR_PLUGINS_LAZY, evasions.get("navigator.plugins"));
+        assertEquals(StealthScripts.CHROME_RUNTIME_LAZY, evasions.get("chrome.runtime"));
+        assertEquals(StealthScripts.CHROME_APP_LAZY, evasions.get("chrome.app"));
+        assertEquals(new StealthConfig().getEnabledEvasions().size() + 1, evasions.size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.setLazyEvasions(false));
+    }
+}
@@ -2,9 +2,14 @@ package com.playwright.stealth;
 
 import com.microsoft.playwright.*;
 import org.junit.jupiter.api.*;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -111,6 +116,46 @@ public class StealthTest {
         assertEquals("Async Test Vendor", vendor);
     }
     
+    @Test
+    void testAsyncStealthWithExecutor() throws Exception {
+        // A page owned by another thread, stealthed from this one through the owner's executor
+        ExecutorService owner = Executors.newSingleThreadExecutor(task -> new Thread(task, "playwright-owner"));
+        List<String> threads = new ArrayList<>();
+        Executor ownerThread = task -> owner.execute(() -> {
+            threads.add(Thread.currentThread().getName());
+            task.run();
+        });
+        Playwright ownedPlaywright = owner.submit(() -> Playwright.create()).get();
+        try {
+            Page ownedPage = owner.submit(() -> ownedPlaywright.chromium()
+                .launch(new BrowserType.LaunchOptions().setHeadless(true))
+                .newPage()).get();
+            
+            CompletableFuture<Void> future = Stealth.stealthAsync(ownedPage, new StealthConfig(), ownerThread);
+            
+            assertDoesNotThrow(() -> future.join());
+            assertEquals(List.of("playwright-owner"), threads);
+            
+            Object webdriverValue = owner.submit(() -> {
+                ownedPage.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+                return ownedPage.evaluate("navigator.webdriver");
+            }).get();
+            assertFalse((Boolean) webdriverValue);
+        } finally {
+            owner.submit(() -> ownedPlaywright.close()).get();
+            owner.shutdown();
+        }
+    }
+    
+    @Test
+    void testAsyncNullPageFails() {
+        CompletableFuture<Void> future = Stealth.stealthAsync(null);
+        
+        assertTrue(future.isCompletedExceptionally());
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+    
     @Test
     void testBuilderPattern() {
         StealthConfig config = Stealth.configBuilder()
@@ -132,6 +177,322 @@ public class StealthTest {
         assertEquals(Arrays.asList("fr-FR", "fr"), languages);
     }
     
+    @Test
+    void testBundledStealth() {
+        StealthConfig config = Stealth.configBuilder()
+            .bundleScripts(true)
+            .navVendor("Bundled Vendor")
+            .build();
+        
+        assertDoesNotThrow(() -> Stealth.stealth(page, config));
+        
+        page.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+        
+        Object webdriverValue = page.evaluate("navigator.webdriver");
+        assertFalse((Boolean) webdriverValue);
+        
+        String vendor = (String) page.evaluate("navigator.vendor");
+        assertEquals("Bundled Vendor", vendor);
+        
+        // The bundle is scoped, so nothing leaks into the page's global scope
+        Object leaked = page.evaluate("typeof opts !== 'undefined' || typeof utils !== 'undefined'");
+        assertFalse((Boolean) leaked);
+    }
+    
+    @Test
+    void testMinifiedStealth() {
+        StealthConfig config = Stealth.configBuilder()
+            .minifyScripts(true)
+            .navVendor("Minified Vendor")
+            .languages(Arrays.asList("pt-BR", "pt"))
+            .build();
+        
+        assertDoesNotThrow(() -> Stealth.stealth(page, config));
+        
+        page.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+        
+        assertFalse((Boolean) page.evaluate("navigator.webdriver"));
+        assertEquals("Minified Vendor", page.evaluate("navigator.vendor"));
+        assertEquals(Arrays.asList("pt-BR", "pt"), page.evaluate("navigator.languages"));
+        assertTrue((Boolean) page.evaluate("navigator.languages === navigator.languages"));
+        assertEquals(3, page.evaluate("navigator.plugins.length"));
+    }
+    
+    @Test
+    void testCdpTransportStealthesCurrentDocument() {
+        page.navigate("data:text/html,<html><body><h1>Loaded First</h1></body></html>");
+        StealthConfig config = Stealth.configBuilder()
+            .transport(StealthTransport.CDP)
+            .navVendor("CDP Vendor")
+            .build();
+        
+        assertDoesNotThrow(() -> Stealth.stealth(page, config));
+        
+        // Applied without a reload
+        assertEquals("CDP Vendor", page.evaluate("navigator.vendor"));
+        
+        page.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+        
+        assertFalse((Boolean) page.evaluate("navigator.webdriver"));
+        assertEquals("CDP Vendor", page.evaluate("navigator.vendor"));
+        assertEquals(3, page.evaluate("navigator.plugins.length"));
+    }
+    
+    @Test
+    void testNativeEmulationStealth() {
+        StealthConfig config = Stealth.configBuilder()
+            .nativeEmulation(true)
+            .navPlatform("Win32")
+            .languages(Arrays.asList("fr-FR", "fr"))
+            .navigatorHardwareConcurrency(8)
+            .build();
+        
+        assertDoesNotThrow(() -> Stealth.stealth(page, config));
+        
+        List<String> headers = new ArrayList<>();
+        page.route("https://emulation.test/**", route -> {
+            headers.add(route.request().headers().get("user-agent"));
+            headers.add(route.request().headers().get("accept-language"));
+            route.fulfill(new Route.FulfillOptions().setContentType("text/html").setBody("<html><body><h1>Test Page</h1></body></html>"));
+        });
+        page.navigate("https://emulation.test/");
+        
+        assertFalse(((String) page.evaluate("navigator.userAgent")).contains("HeadlessChrome"));
+        assertEquals("Win32", page.evaluate("navigator.platform"));
+        assertEquals(Arrays.asList("fr-FR", "fr"), page.evaluate("navigator.languages"));
+        assertEquals(8, page.evaluate("navigator.hardwareConcurrency"));
+        // The emulation overrides keep the request headers in line with navigator
+        assertEquals(page.evaluate("navigator.userAgent"), headers.get(0));
+        assertTrue(headers.get(1).startsWith("fr-FR"));
+    }
+    
+    @Test
+    void testLeanStealthBlocksImages() {
+        StealthRequestBlocker blocker = StealthRequestBlocker.builder().blockResourceTypes("image").build();
+        
+        assertDoesNotThrow(() -> Stealth.stealthLean(page, null, blocker));
+        
+        page.navigate("data:text/html,<html><body><img src='https://example.com/pixel.png'></body></html>");
+        page.waitForLoadState();
+        
+        assertFalse((Boolean) page.evaluate("navigator.webdriver"));
+        assertEquals(1, blocker.getBlocked());
+        assertEquals(0, page.evaluate("document.images[0].naturalWidth"));
+    }
+    
+    @Test
+    void testProfilerReportsEvasionCosts() {
+        StealthProfiler profiler = new StealthProfiler();
+        assertDoesNotThrow(() -> profiler.install(page, null));
+        
+        page.navigate("data:text/html,<html><body><iframe srcdoc='frame'></iframe></body></html>");
+        page.waitForCondition(() -> profiler.report().getFrames() >= 2);
+        
+        StealthProfiler.Report report = profiler.report();
+        assertEquals(1, report.getPages());
+        assertFalse((Boolean) page.evaluate("navigator.webdriver"));
+        for (String name : new StealthConfig().getEnabledEvasions().keySet()) {
+            assertEquals(2, report.get(name).getRuns(), name);
+        }
+        assertEquals(0, report.get("navigator.plugins").getFailures());
+    }
+    
+    @Test
+    void testProxyFreeStealth() {
+        StealthConfig config = Stealth.configBuilder()
+            .proxyFree(true)
+            .build();
+        
+        assertDoesNotThrow(() -> Stealth.stealth(page, config));
+        
+        page.navigate("data:text/html,<html><body><canvas id='canvas'></canvas></body></html>");
+        
+        assertFalse((Boolean) page.evaluate("navigator.webdriver"));
+        assertEquals("function get webdriver() { [native code] }",
+            page.evaluate("Object.getOwnPropertyDescriptor(Object.getPrototypeOf(navigator), 'webdriver').get.toString()"));
+        assertEquals("function getParameter() { [native code] }",
+            page.evaluate("WebGLRenderingContext.prototype.getParameter.toString()"));
+        assertEquals("function toString() { [native code] }", page.evaluate("Function.prototype.toString.toString()"));
+        Object vendor = page.evaluate("(() => { const gl = document.getElementById('canvas').getContext('webgl'); return gl ? gl.getParameter(37445) : 'Intel Inc.'; })()");
+        assertEquals("Intel Inc.", vendor);
+    }
+    
+    @Test
+    void testLazyEvasionsBuildOnFirstAccess() {
+        StealthConfig config = Stealth.configBuilder()
+            .lazyEvasions(true)
+            .runOnInsecureOrigins(true)
+            .build();
+        
+        assertDoesNotThrow(() -> Stealth.stealth(page, config));
+        
+        page.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+        
+        assertEquals("function", page.evaluate("typeof Object.getOwnPropertyDescriptor(window.chrome, 'runtime').get"));
+        // Settling keeps each property where the stub was
+        assertTrue((Boolean) page.evaluate("(() => { const before = Object.keys(window.chrome).join(); window.chrome.app; window.chrome.runtime; return before === Object.keys(window.chrome).join(); })()"));
+        assertEquals("install", page.evaluate("window.chrome.runtime.OnInstalledReason.INSTALL"));
+        assertTrue((Boolean) page.evaluate("window.chrome.runtime === window.chrome.runtime"));
+        assertTrue((Boolean) page.evaluate("'value' in Object.getOwnPropertyDescriptor(window.chrome, 'runtime')"));
+        assertEquals("not_installed", page.evaluate("window.chrome.app.InstallState.NOT_INSTALLED"));
+        assertTrue((Boolean) page.evaluate("navigator.plugins === navigator.plugins && navigator.plugins instanceof PluginArray"));
+    }
+    
+    @Test
+    void testSnapshotStealth() {
+        StealthSnapshot snapshot = Stealth.configBuilder()
+            .navVendor("Snapshot Vendor")
+            .snapshot();
+        
+        assertDoesNotThrow(() -> Stealth.stealth(page, snapshot));
+        
+        page.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+        
+        String vendor = (String) page.evaluate("navigator.vendor");
+        assertEquals("Snapshot Vendor", vendor);
+    }
+    
+    @Test
+    void testContextStealth() {
+        StealthConfig config = new StealthConfig();
+        config.setNavVendor("Context Vendor");
+        
+        try (BrowserContext context = browser.newContext()) {
+            assertDoesNotThrow(() -> Stealth.stealthContext(context, config));
+            
+            // Every page of the context inherits the scripts
+            for (int i = 0; i < 2; i++) {
+                Page contextPage = context.newPage();
+                contextPage.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+                
+                assertFalse((Boolean) contextPage.evaluate("navigator.webdriver"));
+                assertEquals("Context Vendor", contextPage.evaluate("navigator.vendor"));
+            }
+        }
+    }
+    
+    @Test
+    void testContextPoolLeaseAndReturn() {
+        StealthConfig config = new StealthConfig();
+        config.setNavVendor("Pool Vendor");
+        
+        try (StealthContextPool pool = StealthContextPool.builder(browser)
+                .config(config)
+                .warmSize(1)
+                .maxSize(2)
+                .maxUses(2)
+                .build()) {
+            assertEquals(1, pool.stats().getCreates());
+            assertEquals(1, pool.stats().getIdle());
+            
+            try (StealthContextPool.Lease lease = pool.lease()) {
+                assertEquals("about:blank", lease.page().url());
+                lease.page().navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+                assertEquals("Pool Vendor", lease.page().evaluate("navigator.vendor"));
+                assertEquals(1, pool.stats().getLeased());
+            }
+            
+            // The warm context is reused, then recycled after its second use
+            try (StealthContextPool.Lease lease = pool.lease()) {
+                assertEquals("about:blank", lease.page().url());
+            }
+            
+            StealthContextPool.Stats stats = pool.stats();
+            assertEquals(2, stats.getLeases());
+            assertEquals(1, stats.getCreates());
+            assertEquals(1, stats.getEvictions());
+            assertEquals(0, stats.getIdle());
+        }
+    }
+    
+    @Test
+    void testContextPoolClearsStorageAndRejectsWhenExhausted() {
+        Route.FulfillOptions fixture = new Route.FulfillOptions().setContentType("text/html").setBody("<html><body></body></html>");
+        
+        try (StealthContextPool pool = StealthContextPool.builder(browser)
+                .warmSize(1)
+                .maxSize(1)
+                .build()) {
+            try (StealthContextPool.Lease lease = pool.lease()) {
+                lease.context().route("https://pool.test/**", route -> route.fulfill(fixture));
+                lease.page().navigate("https://pool.test/");
+                lease.page().evaluate("localStorage.setItem('visited', '1'); sessionStorage.setItem('visited', '1')");
+                lease.context().unroute("https://pool.test/**");
+                
+                // Only the owning thread can return the lease, so waiting would never end
+                assertThrows(IllegalStateException.class, pool::lease);
+            }
+            
+            try (StealthContextPool.Lease lease = pool.lease()) {
+                lease.context().route("https://pool.test/**", route -> route.fulfill(fixture));
+                lease.page().navigate("https://pool.test/");
+                assertNull(lease.page().evaluate("localStorage.getItem('visited')"));
+                assertNull(lease.page().evaluate("sessionStorage.getItem('visited')"));
+                lease.context().unroute("https://pool.test/**");
+            }
+            
+            assertEquals(1, pool.stats().getRejections());
+            assertEquals(1, pool.stats().getCreates());
+        }
+    }
+    
+    @Test
+    void testWorkerPool() {
+        StealthConfig config = new StealthConfig();
+        config.setNavVendor("Worker Vendor");
+        
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        try (StealthWorkerPool pool = StealthWorkerPool.builder()
+                .workers(2)
+                .config(config)
+                .build()) {
+            for (int i = 0; i < 6; i++) {
+                results.add(pool.submit(workerPage -> {
+                    workerPage.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+                    return (String) workerPage.evaluate("navigator.vendor");
+                }));
+            }
+            
+            for (CompletableFuture<String> result : results) {
+                assertEquals("Worker Vendor", result.join());
+            }
+            assertEquals(6, pool.getCompletedCount());
+        }
+    }
+    
+    @Test
+    void testWorkerPoolSurvivesErrorsAndBrowserLoss() {
+        try (StealthWorkerPool pool = StealthWorkerPool.builder()
+                .workers(1)
+                .build()) {
+            CompletableFuture<Object> error = pool.submit(workerPage -> {
+                throw new AssertionError("Task error");
+            });
+            CompletionException e = assertThrows(CompletionException.class, error::join);
+            assertInstanceOf(AssertionError.class, e.getCause());
+            
+            // The worker relaunches a browser that went away instead of failing every later task
+            pool.submit(workerPage -> {
+                workerPage.context().browser().close();
+                return null;
+            }).join();
+            String vendor = pool.submit(workerPage -> {
+                workerPage.navigate("data:text/html,<html><body><h1>Test Page</h1></body></html>");
+                return (String) workerPage.evaluate("navigator.vendor");
+            }).join();
+            
+            assertEquals("Google Inc.", vendor);
+            assertEquals(1, pool.getRelaunchCount());
+            assertEquals(1, pool.getFailedCount());
+        }
+    }
+    
+    @Test
+    void testNullContextThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> Stealth.stealthContext(null));
+        assertThrows(IllegalArgumentException.class, () -> Stealth.stealthContext(null, new StealthConfig()));
+    }
+    
     @Test
     void testNullPageThrowsException() {
         assertThrows(IllegalArgumentException.class, () -> Stealth.stealth(null));
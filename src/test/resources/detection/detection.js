@@ -0,0 +1,19 @@
+// Shared harness for the detection fixtures. Each fixture calls detect() once; the result is
+// exposed as window.detection, a promise the test awaits through page.evaluate.
+window.detect = (name, check) => {
+    window.detection = (async () => {
+        const start = performance.now()
+        let result
+        try {
+            result = await check()
+        } catch (err) {
+            result = { passed: false, detail: 'threw ' + err }
+        }
+        return {
+            name,
+            passed: result.passed === true,
+            detail: String(result.detail),
+            millis: performance.now() - start
+        }
+    })()
+}